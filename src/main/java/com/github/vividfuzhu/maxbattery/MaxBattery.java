@@ -3,7 +3,9 @@ package com.github.vividfuzhu.maxbattery;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import com.github.vividfuzhu.maxbattery.command.CommandOreAtlas;
 import com.github.vividfuzhu.maxbattery.init.ModBlocks;
+import com.github.vividfuzhu.maxbattery.init.ModEvents;
 import com.github.vividfuzhu.maxbattery.init.ModItems;
 import com.github.vividfuzhu.maxbattery.init.ModMachines;
 import com.github.vividfuzhu.maxbattery.init.ModRecipes;
@@ -11,6 +13,8 @@ import com.github.vividfuzhu.maxbattery.init.ModRecipes;
 import cpw.mods.fml.common.Mod;
 import cpw.mods.fml.common.event.FMLPostInitializationEvent;
 import cpw.mods.fml.common.event.FMLPreInitializationEvent;
+import cpw.mods.fml.common.event.FMLServerStartingEvent;
+import cpw.mods.fml.common.event.FMLServerStoppedEvent;
 
 @Mod(
     modid = MaxBattery.MODID,
@@ -24,6 +28,9 @@ public class MaxBattery {
     public static final String VERSION = "1.0.0";
     public static final Logger LOG = LogManager.getLogger(MODID);
 
+    @Mod.Instance(MODID)
+    public static MaxBattery instance;
+
     @Mod.EventHandler
     public void preInit(FMLPreInitializationEvent e) {
         LOG.info("MaxBattery preInit started");
@@ -37,6 +44,9 @@ public class MaxBattery {
         // 委托：注册所有非GT方块（Tick熔炉等）
         ModBlocks.init();
 
+        // 委托：注册所有事件处理器（采矿机扫描调度等）
+        ModEvents.init();
+
         LOG.info("MaxBattery preInit completed");
     }
 
@@ -46,5 +56,16 @@ public class MaxBattery {
         ModRecipes.init(e);
     }
 
+    @Mod.EventHandler
+    public void serverStarting(FMLServerStartingEvent e) {
+        // 离线矿石图集命令
+        e.registerServerCommand(new CommandOreAtlas());
+    }
+
+    @Mod.EventHandler
+    public void serverStopped(FMLServerStoppedEvent e) {
+        ModEvents.onServerStopped();
+    }
+
     // 物品引用已迁移至 ModItems 类
 }
@@ -1,7 +1,11 @@
 package com.github.vividfuzhu.maxbattery.block.furnace;
 
+import java.util.Objects;
+
+import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraft.item.crafting.FurnaceRecipes;
+import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.tileentity.TileEntityFurnace;
 
 import com.github.vividfuzhu.maxbattery.config.ModConfig;
@@ -18,9 +22,24 @@ import com.github.vividfuzhu.maxbattery.config.ModConfig;
  * </ul>
  *
  * 参考 FastFurnace 项目的三处 ASM 字节码补丁逻辑。
+ *
+ * 熔炼结果按 (物品, 损伤值) 缓存（熔炉配方不区分 NBT），燃料值按 (物品, 损伤值, NBT) 缓存
+ * （燃料处理器可能读取 NBT）：原版查表对整个熔炉配方表逐项比较物品，而每 tick 需要多次查询。
+ * 槽位内容变化时缓存键不再匹配，下次查询自动重新查表。
  */
 public class TileTickFurnace extends TileEntityFurnace {
 
+    /** 熔炼结果缓存：输入物品与损伤值，结果可为 null（无配方） */
+    private Item cachedInput;
+    private int cachedInputDamage;
+    private ItemStack cachedResult;
+
+    /** 燃料值缓存：燃料物品、损伤值与 NBT 副本 */
+    private Item cachedFuel;
+    private int cachedFuelDamage;
+    private NBTTagCompound cachedFuelTag;
+    private int cachedBurnTime;
+
     public TileTickFurnace() {
         super();
     }
@@ -43,7 +62,7 @@ public class TileTickFurnace extends TileEntityFurnace {
 
             // === 燃料耗尽时尝试消耗新燃料 ===
             if (this.furnaceBurnTime <= 0 && canSmeltInternal()) {
-                int burnTime = getItemBurnTime(fuel);
+                int burnTime = burnTimeOf(fuel);
                 if (burnTime > 0) {
                     this.currentItemBurnTime = burnTime;
                     this.furnaceBurnTime = burnTime;
@@ -103,7 +122,7 @@ public class TileTickFurnace extends TileEntityFurnace {
         ItemStack input = this.getStackInSlot(0);
         if (input == null) return false;
 
-        ItemStack result = FurnaceRecipes.smelting().getSmeltingResult(input);
+        ItemStack result = smeltingResult(input);
         if (result == null) return false;
 
         ItemStack output = this.getStackInSlot(2);
@@ -118,8 +137,7 @@ public class TileTickFurnace extends TileEntityFurnace {
     private void doSmeltItem() {
         if (!canSmeltInternal()) return;
 
-        ItemStack input = this.getStackInSlot(0);
-        ItemStack result = FurnaceRecipes.smelting().getSmeltingResult(input);
+        ItemStack result = smeltingResult(this.getStackInSlot(0));
         ItemStack output = this.getStackInSlot(2);
 
         if (output == null) {
@@ -131,6 +149,30 @@ public class TileTickFurnace extends TileEntityFurnace {
         this.decrStackSize(0, 1);
     }
 
+    /** 熔炼结果，输入物品或损伤值变化时重新查表 */
+    private ItemStack smeltingResult(ItemStack input) {
+        if (input.getItem() != cachedInput || input.getItemDamage() != cachedInputDamage) {
+            cachedInput = input.getItem();
+            cachedInputDamage = input.getItemDamage();
+            cachedResult = FurnaceRecipes.smelting().getSmeltingResult(input);
+        }
+        return cachedResult;
+    }
+
+    /** 燃料值，燃料物品、损伤值或 NBT 变化时重新查询 */
+    private int burnTimeOf(ItemStack fuel) {
+        if (fuel == null) return 0;
+        if (fuel.getItem() != cachedFuel || fuel.getItemDamage() != cachedFuelDamage
+            || !Objects.equals(fuel.getTagCompound(), cachedFuelTag)) {
+            cachedFuel = fuel.getItem();
+            cachedFuelDamage = fuel.getItemDamage();
+            cachedFuelTag = fuel.hasTagCompound() ? (NBTTagCompound) fuel.getTagCompound()
+                .copy() : null;
+            cachedBurnTime = getItemBurnTime(fuel);
+        }
+        return cachedBurnTime;
+    }
+
     @Override
     public String getInventoryName() {
         return "container.tickFurnace";
@@ -0,0 +1,108 @@
+package com.github.vividfuzhu.maxbattery.command;
+
+import java.util.List;
+
+import net.minecraft.command.CommandBase;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.command.WrongUsageException;
+import net.minecraft.util.ChatComponentTranslation;
+import net.minecraft.world.WorldServer;
+import net.minecraftforge.common.DimensionManager;
+
+import com.github.vividfuzhu.maxbattery.machine.miner.OreAtlas;
+
+/**
+ * /oreatlas 命令 - 生成、查询、删除离线矿石图集（需要管理员权限）。
+ *
+ * 用法：
+ * <ul>
+ *   <li>/oreatlas build [维度] - 后台读取区域文件生成图集，建议先执行 save-all</li>
+ *   <li>/oreatlas top [数量] [维度] - 列出矿石最多的区块</li>
+ *   <li>/oreatlas delete [维度] - 删除图集</li>
+ * </ul>
+ * 省略维度时使用执行者所在的维度。
+ */
+public class CommandOreAtlas extends CommandBase {
+
+    @Override
+    public String getCommandName() {
+        return "oreatlas";
+    }
+
+    @Override
+    public String getCommandUsage(ICommandSender sender) {
+        return "maxbattery.command.oreatlas.usage";
+    }
+
+    @Override
+    public int getRequiredPermissionLevel() {
+        return 2;
+    }
+
+    @Override
+    public void processCommand(ICommandSender sender, String[] args) {
+        if (args.length == 0) throw new WrongUsageException(getCommandUsage(sender));
+        switch (args[0]) {
+            case "build": {
+                WorldServer world = world(sender, args, 1);
+                int dim = world.provider.dimensionId;
+                boolean started = OreAtlas.INSTANCE.build(world, chunks -> {
+                    if (chunks < 0) {
+                        sender.addChatMessage(new ChatComponentTranslation("maxbattery.command.oreatlas.failed", dim));
+                    } else {
+                        sender.addChatMessage(
+                            new ChatComponentTranslation("maxbattery.command.oreatlas.built", dim, chunks));
+                    }
+                });
+                sender.addChatMessage(
+                    new ChatComponentTranslation(
+                        started ? "maxbattery.command.oreatlas.started" : "maxbattery.command.oreatlas.busy",
+                        dim));
+                break;
+            }
+            case "top": {
+                int count = args.length > 1 ? parseIntBounded(sender, args[1], 1, 100) : 10;
+                WorldServer world = world(sender, args, 2);
+                int dim = world.provider.dimensionId;
+                if (!OreAtlas.INSTANCE.has(dim)) {
+                    sender.addChatMessage(new ChatComponentTranslation("maxbattery.command.oreatlas.missing", dim));
+                    break;
+                }
+                // 图集在后台读取，结果下一个服务器 tick 之后返回
+                OreAtlas.INSTANCE.richestChunks(world, count, chunks -> {
+                    for (int[] chunk : chunks) {
+                        sender.addChatMessage(
+                            new ChatComponentTranslation(
+                                "maxbattery.command.oreatlas.entry",
+                                (chunk[0] << 4) + 8,
+                                (chunk[1] << 4) + 8,
+                                chunk[2]));
+                    }
+                });
+                break;
+            }
+            case "delete": {
+                int dim = world(sender, args, 1).provider.dimensionId;
+                OreAtlas.INSTANCE.delete(dim);
+                sender.addChatMessage(new ChatComponentTranslation("maxbattery.command.oreatlas.deleted", dim));
+                break;
+            }
+            default:
+                throw new WrongUsageException(getCommandUsage(sender));
+        }
+    }
+
+    @Override
+    public List addTabCompletionOptions(ICommandSender sender, String[] args) {
+        return args.length == 1 ? getListOfStringsMatchingLastWord(args, "build", "top", "delete") : null;
+    }
+
+    /** 参数中的维度，省略时为执行者所在维度 */
+    private static WorldServer world(ICommandSender sender, String[] args, int index) {
+        int dim = args.length > index ? parseInt(sender, args[index])
+            : sender.getEntityWorld().provider.dimensionId;
+        WorldServer world = DimensionManager.getWorld(dim);
+        if (world == null) throw new WrongUsageException("maxbattery.command.oreatlas.noworld", dim);
+        return world;
+    }
+}
@@ -24,6 +24,9 @@ public final class ModConfig {
     /** 各等级机器的能耗（EU/t） */
     public static final int[] MINER_ENERGY    = { 160, 160, 640, 2560, 10240, 40960 };
 
+    /** 各等级机器每个挖掘周期并行挖掘的矿石数，能耗按并行数成倍计算 */
+    public static final int[] MINER_PARALLEL  = { 1,   1,   2,   4,   8,   16 };
+
     // ==================== Tick熔炉参数 ====================
 
     /** 每tick消耗的燃料倍率（相对原版1/tick） */
@@ -55,4 +58,70 @@ public final class ModConfig {
     /** 采矿机最大安培输入 */
     public static final long MINER_MAX_AMPERES = 40L;
 
+    /** 全服所有采矿机每 tick 共享的扫描时间预算（纳秒） */
+    public static final long MINER_SCAN_BUDGET_NS = 2_000_000L;
+
+    /** 采矿机掉落物缓冲区容量（物品总数），输出槽满且缓冲区满时暂停挖掘 */
+    public static final long MINER_DROP_BUFFER_CAPACITY = 4096L;
+
+    /** 自动输出间隔（tick），开启物品输出后按此间隔向前面相邻的容器推送 */
+    public static final int MINER_EXPORT_INTERVAL = 5;
+
+    /**
+     * 低影响挖掘：直接写入区块替换矿石，不通知相邻方块（沙子不下落、流体不流动），
+     * 光照推迟到每批挖掘结束后逐个重算；失去支撑的沙子、沙砾会悬空，因此默认关闭
+     */
+    public static final boolean MINER_LOW_IMPACT_EXTRACTION = false;
+    /** 低影响挖掘时替换矿石的填充方块（注册名），无效时使用空气 */
+    public static final String MINER_FILLER_BLOCK = "minecraft:air";
+    /** 填充方块的元数据 */
+    public static final int MINER_FILLER_META = 0;
+
+    /** 采矿机用一张区块票据逐个加载正在扫描/挖掘的区块，关闭后只处理已加载的区块 */
+    public static final boolean MINER_CHUNK_LOADING = true;
+
+    /** 矿脉网格扫描：只扫描 GT 矿脉种子区块及其周围含矿脉的区块段 */
+    public static final boolean MINER_VEIN_GRID_SCAN = false;
+    /** 矿脉网格扫描后，是否再兜底扫描其余区块段（非矿脉矿石） */
+    public static final boolean MINER_VEIN_FALLBACK = false;
+
+    /** 空闲采矿机尝试从相邻采矿机分担工作的间隔（tick） */
+    public static final int MINER_STEAL_INTERVAL = 100;
+    /** 单次最多分担的矿石数（不超过对方队列的一半） */
+    public static final int MINER_STEAL_BATCH = 512;
+    /** 对方队列少于此数量时不分担 */
+    public static final int MINER_STEAL_MIN_QUEUE = 64;
+
+    /** 全服所有采矿机每 tick 共享的破坏方块数上限，按活跃采矿机数均分，超出部分顺延到下一 tick */
+    public static final int MINER_BREAK_BUDGET = 512;
+    /** 全服所有采矿机每 tick 共享的物品放入次数上限（每次放入一组），放不下的留在缓冲区 */
+    public static final int MINER_INSERT_BUDGET = 256;
+
+    /** 采矿机活动状态同步到客户端的最小间隔（tick），状态变化时发送 */
+    public static final int MINER_SYNC_INTERVAL = 20;
+    /** 状态不变时的重发间隔（tick），供之后才加载区块的玩家获取当前状态 */
+    public static final int MINER_SYNC_REFRESH = 100;
+
+    /** 采空休眠：首次全量复查前的等待时间（tick） */
+    public static final int MINER_DEPLETED_BACKOFF_MIN = 1200;
+    /** 所在区块持续无法加载超过该时间（tick）的矿石从队列中丢弃，采空复查时会重新扫描到 */
+    public static final int MINER_DEFER_EXPIRY = 1200;
+    /** 采空休眠：全量复查间隔上限（tick），每次复查无果后间隔翻倍直至此值 */
+    public static final int MINER_DEPLETED_BACKOFF_MAX = 72000;
+
+    /** 是否启用异步扫描（主线程复制区块段，工作线程分类矿石） */
+    public static final boolean MINER_ASYNC_SCAN = false;
+    /** 异步扫描工作线程数 */
+    public static final int MINER_SCAN_THREADS = 2;
+    /** 异步扫描任务队列上限，队列满时采矿机在下一 tick 重试 */
+    public static final int MINER_SCAN_QUEUE_SIZE = 256;
+
+    /**
+     * 扫描未加载的区块时，优先使用离线矿石图集（/oreatlas build 生成），不加载区块
+     * 默认关闭：图集是快照，只适合生成后未再改动的区域
+     */
+    public static final boolean MINER_ATLAS_SEED = false;
+    /** 生成离线矿石图集时并行读取区域文件的线程数 */
+    public static final int MINER_ATLAS_THREADS = 4;
+
 }
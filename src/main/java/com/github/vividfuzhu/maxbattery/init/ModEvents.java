@@ -0,0 +1,60 @@
+package com.github.vividfuzhu.maxbattery.init;
+
+import net.minecraftforge.common.ForgeChunkManager;
+import net.minecraftforge.common.MinecraftForge;
+
+import com.github.vividfuzhu.maxbattery.MaxBattery;
+import com.github.vividfuzhu.maxbattery.machine.miner.MinerAreaRegistry;
+import com.github.vividfuzhu.maxbattery.machine.miner.MinerChunkLoader;
+import com.github.vividfuzhu.maxbattery.machine.miner.MinerScanScheduler;
+import com.github.vividfuzhu.maxbattery.machine.miner.MinerWorkBudget;
+import com.github.vividfuzhu.maxbattery.machine.miner.OreAtlas;
+import com.github.vividfuzhu.maxbattery.machine.miner.OreClassifier;
+import com.github.vividfuzhu.maxbattery.machine.miner.OreIndex;
+
+import cpw.mods.fml.common.FMLCommonHandler;
+
+/**
+ * 事件处理器注册 - 集中管理所有 FML / Forge 事件总线的订阅。
+ *
+ * 扩展方式：
+ * 1. 处理器类中用 {@code @SubscribeEvent} 标注方法
+ * 2. 在 init() 中注册到对应总线（tick 事件走 FML 总线，世界/区块事件走 Forge 总线）
+ */
+public final class ModEvents {
+
+    private ModEvents() {}
+
+    public static void init() {
+        // === 采矿机扫描调度（服务器 tick） ===
+        FMLCommonHandler.instance()
+            .bus()
+            .register(MinerScanScheduler.INSTANCE);
+        // === 采矿机破坏方块 / 放入物品的全服预算（每 tick 重置） ===
+        FMLCommonHandler.instance()
+            .bus()
+            .register(MinerWorkBudget.INSTANCE);
+        // === 离线矿石图集（生成结果在服务器 tick 中交回主线程） ===
+        FMLCommonHandler.instance()
+            .bus()
+            .register(OreAtlas.INSTANCE);
+        // === 离线矿石图集（区块加载后作废对应快照） ===
+        MinecraftForge.EVENT_BUS.register(OreAtlas.INSTANCE);
+        // === 采矿机共享矿石索引（世界 / 区块加载卸载） ===
+        MinecraftForge.EVENT_BUS.register(OreIndex.INSTANCE);
+        // === 矿石分类表（矿物词典注册变化时失效） ===
+        MinecraftForge.EVENT_BUS.register(OreClassifier.INSTANCE);
+        // === 采矿机区块票据（旧票据在世界加载时释放） ===
+        ForgeChunkManager.setForcedChunkLoadingCallback(MaxBattery.instance, MinerChunkLoader.CALLBACK);
+        MaxBattery.LOG.info("Registered event handlers");
+    }
+
+    /** 服务器停止时清理跨世界的静态状态 */
+    public static void onServerStopped() {
+        MinerScanScheduler.INSTANCE.clear();
+        OreIndex.INSTANCE.clear();
+        MinerAreaRegistry.INSTANCE.clear();
+        OreAtlas.INSTANCE.clear();
+    }
+
+}
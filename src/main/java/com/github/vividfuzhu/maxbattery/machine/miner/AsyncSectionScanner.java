@@ -0,0 +1,142 @@
+package com.github.vividfuzhu.maxbattery.machine.miner;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+
+import com.github.vividfuzhu.maxbattery.MaxBattery;
+import com.github.vividfuzhu.maxbattery.config.ModConfig;
+
+/**
+ * 异步区块段扫描 - 主线程只复制区块段数组，矿石分类在有界线程池中完成。
+ *
+ * 矿物词典查询（GTUtility#isOre）不是线程安全的，因此工作线程只读由主线程填充的
+ * {@link OreClassifier} 分类表；表中尚未分类的方块原样交回主线程，在 {@link Job#resolve()} 中补查。
+ * 随着分类表填满，几乎全部扫描开销都转移到工作线程。
+ */
+public final class AsyncSectionScanner {
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private static final ThreadPoolExecutor EXECUTOR = new ThreadPoolExecutor(
+        ModConfig.MINER_SCAN_THREADS,
+        ModConfig.MINER_SCAN_THREADS,
+        60L,
+        TimeUnit.SECONDS,
+        new ArrayBlockingQueue<>(ModConfig.MINER_SCAN_QUEUE_SIZE),
+        runnable -> {
+            Thread thread = new Thread(runnable, "MaxBattery-OreScan-" + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+    static {
+        EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
+    private AsyncSectionScanner() {}
+
+    /** 一个进行中的区块段扫描任务 */
+    public static final class Job {
+
+        private final Future<int[][]> future;
+
+        private Job(Future<int[][]> future) {
+            this.future = future;
+        }
+
+        public boolean isDone() {
+            return future.isDone();
+        }
+
+        /**
+         * 在主线程取回结果并补查未分类的方块
+         *
+         * @return 候选矿石条目（格式见 {@link OreSectionScanner}），任务失败时返回 null
+         */
+        public int[] resolve() {
+            int[][] result;
+            try {
+                result = future.get();
+            } catch (Exception e) {
+                MaxBattery.LOG.warn("Async ore scan failed", e);
+                return null;
+            }
+            int[] ores = result[0];
+            int[] unresolved = result[1];
+            if (unresolved.length == 0) return ores;
+
+            int[] merged = Arrays.copyOf(ores, ores.length + unresolved.length);
+            int count = ores.length;
+            for (int entry : unresolved) {
+                if (OreClassifier.isOre(OreSectionScanner.entryBlockId(entry), OreSectionScanner.entryMeta(entry))) {
+                    merged[count++] = entry;
+                }
+            }
+            if (count == 0) return OreSectionScanner.NO_ORES;
+            merged = Arrays.copyOf(merged, count);
+            Arrays.sort(merged);
+            return merged;
+        }
+    }
+
+    /**
+     * 在主线程复制区块段并提交分类任务
+     *
+     * @param storage 区块段，调用方保证非空
+     * @return 任务；线程池队列已满时返回 null，调用方稍后重试
+     */
+    public static Job submit(ExtendedBlockStorage storage) {
+        byte[] lsb = storage.getBlockLSBArray()
+            .clone();
+        byte[] msb = storage.getBlockMSBArray() == null ? null
+            : storage.getBlockMSBArray().data.clone();
+        byte[] meta = storage.getMetadataArray().data.clone();
+        try {
+            return new Job(EXECUTOR.submit(() -> classifySnapshot(lsb, msb, meta)));
+        } catch (RejectedExecutionException e) {
+            return null;
+        }
+    }
+
+    /** 工作线程：遍历快照，返回 {已确认的矿石条目, 待主线程分类的条目} */
+    private static int[][] classifySnapshot(byte[] lsb, byte[] msb, byte[] meta) {
+        int[] ores = new int[16];
+        int oreCount = 0;
+        int[] unresolved = new int[16];
+        int unresolvedCount = 0;
+
+        for (int index = 0; index < 4096; index++) {
+            int id = lsb[index] & 0xFF;
+            if (msb != null) id |= nibble(msb, index) << 8;
+            if (id == 0) continue; // 空气
+
+            int blockMeta = nibble(meta, index);
+            byte type = OreClassifier.peek(id, blockMeta);
+            if (type == OreClassifier.NOT_ORE) continue;
+
+            int entry = OreSectionScanner.entry(index, id, blockMeta);
+            if (type != OreClassifier.UNKNOWN) {
+                if (oreCount == ores.length) ores = Arrays.copyOf(ores, oreCount << 1);
+                ores[oreCount++] = entry;
+            } else {
+                if (unresolvedCount == unresolved.length) {
+                    unresolved = Arrays.copyOf(unresolved, unresolvedCount << 1);
+                }
+                unresolved[unresolvedCount++] = entry;
+            }
+        }
+        return new int[][] { Arrays.copyOf(ores, oreCount), Arrays.copyOf(unresolved, unresolvedCount) };
+    }
+
+    private static int nibble(byte[] data, int index) {
+        byte b = data[index >> 1];
+        return (index & 1) == 0 ? b & 0xF : (b >> 4) & 0xF;
+    }
+}
@@ -0,0 +1,139 @@
+package com.github.vividfuzhu.maxbattery.machine.miner;
+
+import java.util.ArrayList;
+import java.util.function.ToIntFunction;
+
+import net.minecraft.entity.item.EntityItem;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.world.World;
+
+import gregtech.api.util.GTUtility;
+
+/**
+ * 采矿机掉落物缓冲区 - 输出槽满时暂存掉落物，输出槽腾出空间后再逐步转移。
+ *
+ * 按 (物品, 元数据, NBT) 合并，每种物品只保存一个模板和一个 long 计数。
+ * 采矿机掉落物种类很少，因此用线性表而非哈希表。
+ * 物品总数达到容量后 {@link #isFull()} 返回 true，采矿机暂停挖掘，不再向世界生成掉落物实体。
+ * 同样的结构也用于合并一批挖掘中的掉落物，批次结束时一次性放入输出槽。
+ */
+public final class DropBuffer {
+
+    /** 一种缓冲物品：模板（数量为 1）及其数量 */
+    private static final class Entry {
+
+        final ItemStack template;
+        long count;
+
+        Entry(ItemStack template, long count) {
+            this.template = template;
+            this.count = count;
+        }
+    }
+
+    private final ArrayList<Entry> entries = new ArrayList<>(4);
+    private final long capacity;
+    private long total;
+
+    public DropBuffer(long capacity) {
+        this.capacity = capacity;
+    }
+
+    public boolean isEmpty() {
+        return total == 0;
+    }
+
+    /** 缓冲物品总数是否已达容量，达到后采矿机应暂停挖掘 */
+    public boolean isFull() {
+        return total >= capacity;
+    }
+
+    public long size() {
+        return total;
+    }
+
+    /**
+     * 放入物品。不检查容量：单个矿石的掉落必须完整收下，由调用方在挖掘前检查 {@link #isFull()}
+     */
+    public void add(ItemStack stack) {
+        if (stack == null || stack.stackSize <= 0) return;
+        for (Entry entry : entries) {
+            if (GTUtility.areStacksEqual(entry.template, stack)) {
+                entry.count += stack.stackSize;
+                total += stack.stackSize;
+                return;
+            }
+        }
+        ItemStack template = stack.copy();
+        template.stackSize = 1;
+        entries.add(new Entry(template, stack.stackSize));
+        total += stack.stackSize;
+    }
+
+    /**
+     * 把缓冲物品按组交给 sink，直到 sink 不再接收
+     *
+     * @param sink 接收一组物品，返回实际接收的数量
+     */
+    public void drainTo(ToIntFunction<ItemStack> sink) {
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            while (entry.count > 0) {
+                ItemStack stack = entry.template.copy();
+                stack.stackSize = (int) Math.min(entry.count, stack.getMaxStackSize());
+                int moved = sink.applyAsInt(stack);
+                if (moved <= 0) break;
+                entry.count -= moved;
+                total -= moved;
+            }
+            if (entry.count <= 0) entries.remove(i--);
+        }
+    }
+
+    /** 把缓冲区全部内容按整组掉落到世界中（机器被破坏或爆炸时） */
+    public void dropAll(World world, double x, double y, double z) {
+        for (Entry entry : entries) {
+            long remaining = entry.count;
+            int maxStack = entry.template.getMaxStackSize();
+            while (remaining > 0) {
+                ItemStack stack = entry.template.copy();
+                stack.stackSize = (int) Math.min(remaining, maxStack);
+                remaining -= stack.stackSize;
+                world.spawnEntityInWorld(new EntityItem(world, x, y, z, stack));
+            }
+        }
+        clear();
+    }
+
+    public void clear() {
+        entries.clear();
+        total = 0;
+    }
+
+    public void writeToNBT(NBTTagCompound aNBT, String key) {
+        if (entries.isEmpty()) return;
+        NBTTagList list = new NBTTagList();
+        for (Entry entry : entries) {
+            NBTTagCompound tag = entry.template.writeToNBT(new NBTTagCompound());
+            tag.setLong("BufferCount", entry.count);
+            list.appendTag(tag);
+        }
+        aNBT.setTag(key, list);
+    }
+
+    public void readFromNBT(NBTTagCompound aNBT, String key) {
+        clear();
+        NBTTagList list = aNBT.getTagList(key, 10);
+        for (int i = 0; i < list.tagCount(); i++) {
+            NBTTagCompound tag = list.getCompoundTagAt(i);
+            ItemStack template = ItemStack.loadItemStackFromNBT(tag);
+            long count = tag.getLong("BufferCount");
+            if (template == null || count <= 0) continue; // 物品已被移除的模组
+            template.stackSize = 1;
+            entries.add(new Entry(template, count));
+            total += count;
+        }
+    }
+}
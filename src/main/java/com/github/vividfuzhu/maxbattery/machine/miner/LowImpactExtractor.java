@@ -0,0 +1,63 @@
+package com.github.vividfuzhu.maxbattery.machine.miner;
+
+import java.util.Arrays;
+
+import net.minecraft.block.Block;
+import net.minecraft.init.Blocks;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+
+import com.github.vividfuzhu.maxbattery.config.ModConfig;
+
+/**
+ * 低影响方块移除 - 直接写入区块，跳过邻居通知，光照推迟到一批挖掘结束后重算。
+ *
+ * {@link World#setBlockToAir} 每次都会通知六个邻居并重算光照：矿石上方的沙子、沙砾会变成
+ * 掉落方块实体，相邻流体会开始流动。这里改为：
+ * <ul>
+ *   <li>用 {@link Chunk#func_150807_a} 写入填充方块（默认空气），不通知邻居</li>
+ *   <li>{@link World#markBlockForUpdate} 只同步客户端，同时让 {@link MinerWorldAccess} 照常更新矿石索引</li>
+ *   <li>光照推迟到一批挖掘结束后重算，每个被移除的方块各重算一次，计算量与 setBlock 相同</li>
+ * </ul>
+ * 默认关闭（{@link ModConfig#MINER_LOW_IMPACT_EXTRACTION}）：失去支撑的沙子、沙砾会悬空，流体不会流动。
+ */
+public final class LowImpactExtractor {
+
+    private static Block filler;
+
+    /** 本批次移除的方块坐标，按 x, y, z 连续存放 */
+    private int[] removed = new int[48];
+    private int removedLength;
+
+    /**
+     * 移除方块并用填充方块替换
+     *
+     * @return 是否成功写入区块；失败时方块保持原样
+     */
+    public boolean remove(World world, int x, int y, int z) {
+        Chunk chunk = world.getChunkFromBlockCoords(x, z);
+        if (!chunk.func_150807_a(x & 15, y, z & 15, getFiller(), ModConfig.MINER_FILLER_META)) return false;
+        world.markBlockForUpdate(x, y, z);
+        if (removedLength + 3 > removed.length) removed = Arrays.copyOf(removed, removed.length << 1);
+        removed[removedLength++] = x;
+        removed[removedLength++] = y;
+        removed[removedLength++] = z;
+        return true;
+    }
+
+    /** 一批挖掘结束：逐个重算被移除方块处的光照（天空光与方块光） */
+    public void flush(World world) {
+        for (int i = 0; i < removedLength; i += 3) {
+            world.func_147451_t(removed[i], removed[i + 1], removed[i + 2]);
+        }
+        removedLength = 0;
+    }
+
+    private static Block getFiller() {
+        if (filler == null) {
+            Block block = Block.getBlockFromName(ModConfig.MINER_FILLER_BLOCK);
+            filler = block != null ? block : Blocks.air;
+        }
+        return filler;
+    }
+}
@@ -2,7 +2,8 @@ package com.github.vividfuzhu.maxbattery.machine.miner;
 
 import static gregtech.api.enums.GTValues.V;
 
-import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 
 import net.minecraft.block.Block;
@@ -12,7 +13,7 @@ import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.EnumChatFormatting;
 import net.minecraft.util.StatCollector;
-import net.minecraft.world.ChunkPosition;
+import net.minecraft.world.World;
 import net.minecraftforge.common.util.ForgeDirection;
 
 import cpw.mods.fml.relauncher.Side;
@@ -31,7 +32,6 @@ import gregtech.api.recipe.BasicUIProperties;
 import gregtech.api.render.TextureFactory;
 import gregtech.api.util.GTLog;
 import gregtech.api.util.GTUtility;
-import gregtech.common.blocks.BlockOresAbstract;
 import gregtech.common.blocks.TileEntityOres;
 
 /**
@@ -69,22 +69,37 @@ public class MaxBatteryMiner extends MTEBasicMachine implements IAddUIWidgets {
      */
     private static final int[] ENERGY = ModConfig.MINER_ENERGY;
 
+    /**
+     * 不同等级机器每个挖掘周期的并行数，能耗按并行数成倍增加
+     * 数值定义见 {@link ModConfig#MINER_PARALLEL}
+     */
+    private static final int[] PARALLEL = ModConfig.MINER_PARALLEL;
+
+    /** {@link #mineNextOre} 的结果：挖掉了矿石 / 位置已不是可挖的矿石 / 区块无法加载，矿石放回队尾 */
+    private static final int ORE_MINED = 0;
+    private static final int ORE_SKIPPED = 1;
+    private static final int ORE_DEFERRED = 2;
+
+    /** 一批挖掘中最多跳过的区块暂不可用的矿石数 */
+    private static final int MAX_DEFERRALS_PER_BURST = 64;
+
     /**
      * 当前配置的工作半径，可通过螺丝刀调节
      */
     private int radiusConfig;
 
     /**
-     * 存储扫描到的所有矿石位置的列表
-     * 使用相对坐标存储以节省内存
+     * 存储扫描到的所有矿石位置的队列
+     * 使用压缩的相对坐标存储以节省内存，见 {@link OreQueue}
      */
-    private final ArrayList<ChunkPosition> oreBlockPositions = new ArrayList<>();
+    private final OreQueue oreBlockPositions = new OreQueue();
 
     /**
-     * 当前挖掘进度计数器
-     * 每tick增加1，达到mSpeed时执行一次挖掘
+     * 当前挖掘进度（已投入的EU）
+     * 每累计 {@link #energyPerOre()} EU 挖掘一个矿石，能量不足时按实际投入的能量降速
+     * 超出全服挖掘预算的部分保留为积压，见 {@link MinerWorkBudget}
      */
-    private int currentMiningProgress = 0;
+    private long miningProgressEU = 0;
 
     /**
      * 是否已完成初始扫描的标志
@@ -94,17 +109,93 @@ public class MaxBatteryMiner extends MTEBasicMachine implements IAddUIWidgets {
     private boolean hasScanned = false;
 
     /**
-     * 当前扫描的Y坐标
-     * 从机器Y坐标开始向下扫描，逐步减小
-     * 初始值为-1，表示未开始扫描
+     * 当前扫描计划及进度
+     * 扫描以"一层 × 一个区块列"为最小单位，可在层内中断并恢复
+     * 为null表示没有进行中的扫描
+     */
+    private MinerScanPlan scanPlan = null;
+
+    /**
+     * 上次扫描开始后发生过方块变化的区块段（区块段键见 {@link OreIndex#sectionKey}）
+     * 矿石挖完后只重扫这些区块段，而不是整个工作区域
+     */
+    private final HashSet<Long> dirtySections = new HashSet<>();
+
+    /**
+     * 已登记到 {@link MinerAreaRegistry} 的区域 {维度, 最小区块X, 最大区块X, 最小区块Z, 最大区块Z}
+     */
+    private int[] registeredArea = null;
+
+    /**
+     * 是否已登记在 {@link MinerScanScheduler} 的等待队列中
+     */
+    boolean scanQueued = false;
+
+    /**
+     * 从NBT恢复的矿石队列所对应的机器坐标与半径 {x, y, z, radius}
+     * 为null表示没有可用的存档状态，首tick需要重新扫描
+     */
+    private int[] restoredOrigin = null;
+
+    /**
+     * 工作区域是否已采空（扫描完成、队列为空、没有待重扫的区块段）
+     * 采空后进入休眠：只在区域内方块变化、半径变化或退避时间到期时才重新扫描
      */
-    private int scanYCursor = -1;
+    private boolean depleted = false;
+
+    /** 当前退避间隔（tick），每次复查仍无矿石时翻倍 */
+    private int depletedBackoff = 0;
+
+    /** 下次全量复查的世界时间 */
+    private long nextDepletedCheck = 0;
+
+    /** 输出槽满时暂存掉落物，满后暂停挖掘 */
+    private final DropBuffer dropBuffer = new DropBuffer(ModConfig.MINER_DROP_BUFFER_CAPACITY);
+
+    /** 一批挖掘中产生的掉落物，按物品合并后在批次结束时一次性放入输出槽 */
+    private final DropBuffer burstDrops = new DropBuffer(Long.MAX_VALUE);
+
+    /** 矿石过滤器：手持矿石右键切换条目，电烙铁切换模式 */
+    private final OreFilter oreFilter = new OreFilter();
 
     /**
-     * 每tick处理的层数，用于分帧扫描避免卡顿
-     * 设置为2表示每tick扫描2层
+     * 矿脉网格扫描阶段：0=未使用，1=种子区块，2=矿脉区块，3=兜底
+     * 见 {@link VeinGridPlanner}
      */
-    private static final int LAYERS_PER_TICK = 2;
+    private int veinPhase = 0;
+
+    /** 种子阶段发现 GT 矿石的区块段 */
+    private final HashSet<Long> veinSeeds = new HashSet<>();
+
+    /** 本机认领的区块段，见 {@link MinerAreaRegistry#claim} */
+    private final HashSet<Long> claimedSections = new HashSet<>();
+
+    /** 所在区块暂不可用的矿石（队列中的打包坐标）→ 首次无法加载的世界时间，不保存 */
+    private final HashMap<Integer, Long> deferredSince = new HashMap<>();
+
+    /** 本机在 {@link MinerWorkBudget} 中当前 tick 已取得的份额 */
+    private final MinerWorkBudget.Share budgetShare = new MinerWorkBudget.Share();
+
+    /** 下次尝试从相邻采矿机分担工作的世界时间 */
+    private long nextStealAttempt = 0;
+
+    /** 自动输出到输出面相邻容器，缓存目标槽位 */
+    private final MinerExporter exporter = new MinerExporter();
+
+    /** 低影响挖掘模式下的方块移除与批量光照更新 */
+    private final LowImpactExtractor extractor = new LowImpactExtractor();
+
+    /** 运行统计，显示在扫描仪信息中 */
+    private final MinerStats stats = new MinerStats();
+
+    /** 同步到客户端的活动状态与平滑进度 */
+    private final MinerActivity activity = new MinerActivity();
+
+    /** 区块票据，随扫描/挖掘位置移动 */
+    private final MinerChunkLoader chunkLoader = new MinerChunkLoader();
+
+    /** 从NBT读取的原始数据，首tick恢复扫描计划时使用 */
+    private NBTTagCompound restoredNBT = null;
 
     /**
      * 当前机器的速度配置值
@@ -150,6 +241,7 @@ public class MaxBatteryMiner extends MTEBasicMachine implements IAddUIWidgets {
                 "内置20倍加速", // 内置20倍加速
                 "使用螺丝刀调节工作区域", // 使用螺丝刀调节工作区域
                 String.format("%d EU/t, %.1f秒/方块", ENERGY[aTier], SPEED[aTier] / 20.0), // 能耗和挖掘时间
+                String.format("并行挖掘 %d 个/周期，能耗按并行数计算", PARALLEL[aTier]), // 并行数
                 String.format("最大工作区域 %dx%d", (RADIUS[aTier] * 2 + 1), (RADIUS[aTier] * 2 + 1)), // 最大工作区域
                 String.format("小型矿石幸运加成 %d", aTier) // 小型矿石幸运加成
             },
@@ -258,7 +350,8 @@ public class MaxBatteryMiner extends MTEBasicMachine implements IAddUIWidgets {
      */
     @Override
     public long maxEUStore() {
-        return Math.max(V[mTier] * 64L, 4096L);
+        // 至少能存下满并行时两个tick的能耗
+        return Math.max(Math.max(V[mTier] * 64L, 4096L), ENERGY[mTier] * 40L * PARALLEL[mTier]);
     }
 
     /**
@@ -273,7 +366,7 @@ public class MaxBatteryMiner extends MTEBasicMachine implements IAddUIWidgets {
 
     /**
      * 获取机器最大安培输入
-     * 为了适应20倍能耗，增加电流容量
+     * 为了适应20倍能耗，增加电流容量；满并行的需求超过配置的电流时，挖掘按实际输入的能量比例变慢
      *
      * @return 最大安培输入量
      */
@@ -316,14 +409,14 @@ public class MaxBatteryMiner extends MTEBasicMachine implements IAddUIWidgets {
 
     /**
      * 检查指定面是否为输出面
-     * 采矿机没有输出面，所有输出通过内部槽位
+     * 前面（自动输出推送的方向）为输出面，前面与主面重合时没有输出面
      *
      * @param side 方向
      * @return true表示是输出面
      */
     @Override
     public boolean isOutputFacing(ForgeDirection side) {
-        return false;
+        return side == getBaseMetaTileEntity().getFrontFacing() && side != mMainFacing;
     }
 
     /**
@@ -339,29 +432,222 @@ public class MaxBatteryMiner extends MTEBasicMachine implements IAddUIWidgets {
 
     /**
      * 机器第一次tick时调用，初始化扫描状态
+     * 若存档中的矿石队列仍然有效（同一位置、同一半径），直接恢复挖掘，不再重新扫描
      */
     @Override
     public void onFirstTick(IGregTechTileEntity aBaseMetaTileEntity) {
         if (aBaseMetaTileEntity.isServerSide()) {
-            scanYCursor = aBaseMetaTileEntity.getYCoord();
-            hasScanned = false;
-            oreBlockPositions.clear();
+            if (!isRestoredStateValid(aBaseMetaTileEntity)) {
+                // 新放置或被移动过的机器：重新扫描并退出休眠
+                restartScan();
+                oreBlockPositions.clear();
+                wakeUp();
+            } else if (!hasScanned) {
+                scanPlan = MinerScanPlan.readFromNBT(
+                    restoredNBT,
+                    aBaseMetaTileEntity.getXCoord(),
+                    aBaseMetaTileEntity.getYCoord(),
+                    aBaseMetaTileEntity.getZCoord(),
+                    radiusConfig);
+                if (scanPlan == null) {
+                    restartScan();
+                    oreBlockPositions.clear();
+                }
+            }
+            // 旧存档的队列按层排序，重排为按区块列挖掘
+            oreBlockPositions.sortByChunk(aBaseMetaTileEntity.getXCoord(), aBaseMetaTileEntity.getZCoord());
+            restoredOrigin = null;
+            restoredNBT = null;
+            registerArea();
         }
     }
 
-    /** 检查两个输出槽是否还有空间存放物品 */
-    public boolean hasFreeSpace() {
-        for (int i = getOutputSlot(); i < getOutputSlot() + 2; i++) {
-            if (mInventory[i] == null) return true;
-            if (mInventory[i].stackSize < mInventory[i].getMaxStackSize()) return true;
+    /** 校验存档恢复的扫描状态是否属于当前机器 */
+    private boolean isRestoredStateValid(IGregTechTileEntity aBaseMetaTileEntity) {
+        if (restoredOrigin == null || restoredOrigin.length != 4) return false;
+        if (restoredOrigin[0] != aBaseMetaTileEntity.getXCoord() || restoredOrigin[1] != aBaseMetaTileEntity.getYCoord()
+            || restoredOrigin[2] != aBaseMetaTileEntity.getZCoord()
+            || restoredOrigin[3] != radiusConfig) {
+            return false;
+        }
+        return oreBlockPositions.isWithin(radiusConfig, aBaseMetaTileEntity.getYCoord());
+    }
+
+    /** 机器被拆除时注销区域登记 */
+    @Override
+    public void onRemoval() {
+        super.onRemoval();
+        chunkLoader.release();
+        releaseClaims();
+        unregisterArea();
+    }
+
+    /** 将当前工作区域登记到 {@link MinerAreaRegistry}，以便接收方块变化通知 */
+    private void registerArea() {
+        unregisterArea();
+        IGregTechTileEntity base = getBaseMetaTileEntity();
+        registeredArea = new int[] { base.getWorld().provider.dimensionId,
+            (base.getXCoord() - radiusConfig) >> 4, (base.getXCoord() + radiusConfig) >> 4,
+            (base.getZCoord() - radiusConfig) >> 4, (base.getZCoord() + radiusConfig) >> 4 };
+        MinerAreaRegistry.INSTANCE.register(
+            this,
+            registeredArea[0],
+            registeredArea[1],
+            registeredArea[2],
+            registeredArea[3],
+            registeredArea[4]);
+    }
+
+    private void unregisterArea() {
+        if (registeredArea == null) return;
+        MinerAreaRegistry.INSTANCE.unregister(
+            this,
+            registeredArea[0],
+            registeredArea[1],
+            registeredArea[2],
+            registeredArea[3],
+            registeredArea[4]);
+        registeredArea = null;
+    }
+
+    /**
+     * 工作区域内某个区块段发生了方块变化，由 {@link MinerAreaRegistry} 调用
+     */
+    void onSectionChanged(int chunkX, int sectionY, int chunkZ) {
+        if (sectionY << 4 > getBaseMetaTileEntity().getYCoord()) return; // 机器上方的区块段不扫描
+        dirtySections.add(OreIndex.sectionKey(chunkX, sectionY, chunkZ));
+    }
+
+    /** 释放本机认领的所有区块段 */
+    private void releaseClaims() {
+        if (claimedSections.isEmpty()) return;
+        IGregTechTileEntity base = getBaseMetaTileEntity();
+        MinerAreaRegistry.INSTANCE.releaseClaims(this, base.getWorld().provider.dimensionId, claimedSections);
+        claimedSections.clear();
+    }
+
+    /** 方块是否位于本机的工作区域内（水平半径内且不高于机器） */
+    boolean covers(int x, int y, int z) {
+        IGregTechTileEntity base = getBaseMetaTileEntity();
+        return Math.abs(x - base.getXCoord()) <= radiusConfig && Math.abs(z - base.getZCoord()) <= radiusConfig
+            && y >= 0
+            && y <= base.getYCoord();
+    }
+
+    /**
+     * 本机是否会挖掘该矿石：位于工作区域内且通过矿石过滤器
+     * GT 矿石的 TileEntity 未读取时（异步扫描 / 离线图集），过滤器开启即视为不确定，返回 false 由调用方自行入队
+     *
+     * @param gtOre GT 矿石的 TileEntity，未读取时为 null
+     */
+    boolean accepts(int x, int y, int z, int blockId, int meta, byte type, TileEntityOres gtOre) {
+        if (!covers(x, y, z)) return false;
+        if (type == OreClassifier.DICT_ORE) return oreFilter.allowsBlock(blockId, meta);
+        if (gtOre != null) return oreFilter.allowsGtOre(gtOre.mMetaData);
+        return !oreFilter.isActive();
+    }
+
+    /**
+     * 本机不再接收部分矿石（半径缩小、过滤器变化）时释放认领，并让相邻采矿机重扫这些区块段，
+     * 否则相邻采矿机此前因认领而跳过的矿石无人挖掘
+     */
+    private void handOverClaims() {
+        if (claimedSections.isEmpty()) return;
+        int dimensionId = getBaseMetaTileEntity().getWorld().provider.dimensionId;
+        Long[] released = claimedSections.toArray(new Long[0]);
+        releaseClaims();
+        for (long key : released) {
+            int chunkX = MinerScanPlan.sectionChunkX(key);
+            int chunkZ = MinerScanPlan.sectionChunkZ(key);
+            for (MaxBatteryMiner neighbour : MinerAreaRegistry.INSTANCE
+                .neighbours(this, dimensionId, chunkX, chunkX, chunkZ, chunkZ)) {
+                neighbour.onSectionChanged(chunkX, (int) (key & 0xF), chunkZ);
+            }
+        }
+    }
+
+    /**
+     * 把队尾位于 thief 工作区域内的一部分矿石交给 thief
+     *
+     * @return 交出的矿石绝对坐标，每3个int为一组 (x, y, z)
+     */
+    int[] handOverWork(MaxBatteryMiner thief) {
+        int amount = Math.min(oreBlockPositions.size() / 2, ModConfig.MINER_STEAL_BATCH);
+        if (amount <= 0) return new int[0];
+        IGregTechTileEntity base = getBaseMetaTileEntity();
+        int x = base.getXCoord();
+        int y = base.getYCoord();
+        int z = base.getZCoord();
+        int[] removed = oreBlockPositions.removeFromTail(
+            amount,
+            amount * 4,
+            packed -> thief
+                .covers(x + OreQueue.unpackX(packed), y + OreQueue.unpackY(packed), z + OreQueue.unpackZ(packed)));
+        int[] positions = new int[removed.length * 3];
+        for (int i = 0; i < removed.length; i++) {
+            positions[i * 3] = x + OreQueue.unpackX(removed[i]);
+            positions[i * 3 + 1] = y + OreQueue.unpackY(removed[i]);
+            positions[i * 3 + 2] = z + OreQueue.unpackZ(removed[i]);
+        }
+        return positions;
+    }
+
+    /**
+     * 空闲时从工作区域重叠的采矿机分担队列中的矿石
+     * 只从过滤器不比本机宽的采矿机分担，否则分到本机会跳过的矿石，两台采矿机都不会再挖
+     *
+     * @return 是否分到了矿石
+     */
+    private boolean stealWork(long worldTime) {
+        if (registeredArea == null || worldTime < nextStealAttempt) return false;
+        nextStealAttempt = worldTime + ModConfig.MINER_STEAL_INTERVAL;
+        for (MaxBatteryMiner neighbour : MinerAreaRegistry.INSTANCE.neighbours(
+            this,
+            registeredArea[0],
+            registeredArea[1],
+            registeredArea[2],
+            registeredArea[3],
+            registeredArea[4])) {
+            if (neighbour.oreBlockPositions.size() < ModConfig.MINER_STEAL_MIN_QUEUE) continue;
+            if (!oreFilter.coversAllOf(neighbour.oreFilter)) continue;
+            int[] positions = neighbour.handOverWork(this);
+            if (positions.length == 0) continue;
+            IGregTechTileEntity base = getBaseMetaTileEntity();
+            for (int i = 0; i < positions.length; i += 3) {
+                oreBlockPositions.add(
+                    positions[i] - base.getXCoord(),
+                    positions[i + 1] - base.getYCoord(),
+                    positions[i + 2] - base.getZCoord());
+            }
+            return true;
         }
         return false;
     }
 
+    /**
+     * 机器所在区块卸载：释放票据、认领和区域登记，避免已停止的旧实例继续占用区块或截留矿石
+     * 区块重新加载时由新实例重新登记
+     */
+    void onMachineChunkUnload() {
+        chunkLoader.release();
+        releaseClaims();
+        unregisterArea();
+    }
+
+    /** 机器是否仍存在于已加载的世界中（区块卸载后旧实例不会被标记为失效，需额外检查区块） */
+    boolean isLoadedInWorld() {
+        IGregTechTileEntity base = getBaseMetaTileEntity();
+        return base != null && !base.isInvalidTileEntity()
+            && base.getMetaTileEntity() == this
+            && base.getWorld()
+                .blockExists(base.getXCoord(), base.getYCoord(), base.getZCoord());
+    }
+
     @Override
     public void onScrewdriverRightClick(ForgeDirection side, EntityPlayer aPlayer, float aX, float aY, float aZ,
         ItemStack aTool) {
         if (side != getBaseMetaTileEntity().getFrontFacing() && side != mMainFacing) {
+            int oldRadius = radiusConfig;
             if (aPlayer.isSneaking()) {
                 radiusConfig = Math.max(0, radiusConfig - 1);
             } else {
@@ -376,16 +662,85 @@ public class MaxBatteryMiner extends MTEBasicMachine implements IAddUIWidgets {
                     (radiusConfig * 2 + 1),
                     (radiusConfig * 2 + 1)));
 
-            // 重置扫描状态，触发重新扫描
-            scanYCursor = getBaseMetaTileEntity().getYCoord();
-            hasScanned = false;
+            onRadiusChanged(oldRadius);
+        }
+    }
+
+    /**
+     * 手持矿石右键：把该矿石加入或移出过滤列表，不打开界面
+     * 潜行时原版在手持物品的情况下不会调用方块的右键处理（矿石会被放置），因此使用普通右键
+     */
+    @Override
+    public boolean onRightclick(IGregTechTileEntity aBaseMetaTileEntity, EntityPlayer aPlayer, ForgeDirection side,
+        float aX, float aY, float aZ) {
+        ItemStack held = aPlayer.getCurrentEquippedItem();
+        if (OreFilter.canFilter(held)) {
+            if (aBaseMetaTileEntity.isClientSide()) return true;
+            boolean listed = oreFilter.toggle(held);
+            GTUtility.sendChatToPlayer(
+                aPlayer,
+                StatCollector.translateToLocal(
+                    listed ? "maxbattery.miner.filter.added" : "maxbattery.miner.filter.removed") + ": "
+                    + held.getDisplayName());
+            onFilterChanged();
+            return true;
+        }
+        return super.onRightclick(aBaseMetaTileEntity, aPlayer, side, aX, aY, aZ);
+    }
+
+    /**
+     * 电烙铁右键：切换过滤模式（关闭 / 白名单 / 黑名单）
+     */
+    @Override
+    public boolean onSolderingToolRightClick(ForgeDirection side, ForgeDirection wrenchingSide, EntityPlayer aPlayer,
+        float aX, float aY, float aZ, ItemStack aTool) {
+        int mode = oreFilter.cycleMode();
+        GTUtility.sendChatToPlayer(
+            aPlayer,
+            StatCollector.translateToLocal("maxbattery.miner.filter") + ": "
+                + StatCollector.translateToLocal("maxbattery.miner.filter.mode." + mode));
+        onFilterChanged();
+        return true;
+    }
+
+    /** 过滤器变化后重新扫描，被过滤的矿石在挖掘前也会再检查 */
+    private void onFilterChanged() {
+        handOverClaims();
+        restartScan();
+        oreBlockPositions.clear();
+        wakeUp();
+    }
+
+    /**
+     * 工作半径变化后调整扫描状态
+     * 扫描已完成时：缩小只需丢弃区域外的矿石，扩大只扫描新增的环形区域
+     * 扫描进行中时：重新全量扫描
+     */
+    private void onRadiusChanged(int oldRadius) {
+        if (oldRadius == radiusConfig) return;
+        if (radiusConfig < oldRadius) handOverClaims();
+        registerArea();
+        wakeUp();
+        if (!hasScanned) {
+            restartScan();
             oreBlockPositions.clear();
+            return;
+        }
+        IGregTechTileEntity base = getBaseMetaTileEntity();
+        if (radiusConfig < oldRadius) {
+            oreBlockPositions.retainWithin(radiusConfig);
+        } else {
+            scanPlan = MinerScanPlan
+                .ring(base.getXCoord(), base.getYCoord(), base.getZCoord(), radiusConfig, oldRadius);
+            hasScanned = false;
+            veinPhase = 0;
+            stats.startScan();
         }
     }
 
     /**
      * 每tick调用一次的主要逻辑
-     * 处理扫描和挖掘两个阶段
+     * 扫描与挖掘流水线并行：扫描自上而下推进，已扫描层中找到的矿石可立即挖掘
      *
      * @param aBaseMetaTileEntity 基础元TileEntity
      * @param aTick               当前tick数
@@ -396,151 +751,447 @@ public class MaxBatteryMiner extends MTEBasicMachine implements IAddUIWidgets {
 
         if (!aBaseMetaTileEntity.isServerSide()) return; // 只在服务端执行
 
-        // 阶段 1：分帧扫描
+        // 扫描交由全服调度器按时间预算推进，不阻塞挖掘
         if (!hasScanned) {
-            if (scanYCursor >= 0) {
-                for (int layer = 0; layer < LAYERS_PER_TICK && scanYCursor >= 0; layer++) {
-                    scanLayer(aBaseMetaTileEntity, scanYCursor);
-                    scanYCursor--;
-                }
-                if (scanYCursor < 0) {
-                    hasScanned = true;
-                    if (gregtech.api.enums.GTValues.debugBlockMiner) {
-                        GTLog.out
-                            .println("MAXBATTERY MINER: Scan completed, found " + oreBlockPositions.size() + " ores");
-                    }
-                }
+            MinerScanScheduler.INSTANCE.request(this);
+        } else if (oreBlockPositions.isEmpty()) {
+            onQueueExhausted(aBaseMetaTileEntity.getWorld()
+                .getTotalWorldTime());
+        }
+        // 自动输出开启时按间隔整组推送到前面的容器
+        if (mItemTransfer && aTick % ModConfig.MINER_EXPORT_INTERVAL == 0) exportOutputs(aBaseMetaTileEntity);
+
+        // 输出槽腾出空间后先转移缓冲的掉落物
+        if (!dropBuffer.isEmpty()) dropBuffer.drainTo(MinerWorkBudget.INSTANCE.limit(budgetShare, this::insertOutput));
+
+        mineTick(aBaseMetaTileEntity);
+
+        // 活动状态只在变化且达到发送间隔时同步，工作状态以已同步的状态为准，避免材质和音效反复切换
+        int sync = activity.poll(aTick);
+        if (sync >= 0) aBaseMetaTileEntity.sendBlockEvent(MinerActivity.EVENT_ID, (byte) sync);
+        aBaseMetaTileEntity.setActive(activity.isWorking());
+    }
+
+    /** 挖掘已入队的矿石，并记录本 tick 的活动状态 */
+    private void mineTick(IGregTechTileEntity aBaseMetaTileEntity) {
+        if (!aBaseMetaTileEntity.isAllowedToWork() || oreBlockPositions.isEmpty()) { // 无矿石时不扣能量
+            // 被软锤关闭时不保留区块；扫描仍在进行时扫描用区块由扫描自行管理
+            if (!aBaseMetaTileEntity.isAllowedToWork() && hasScanned) chunkLoader.release();
+            if (scanPlan != null && !hasScanned) {
+                activity.observe(MinerActivity.SCANNING, scanPlan.progress());
             } else {
-                hasScanned = true;
+                activity.observe(MinerActivity.IDLE, 0F);
+            }
+            return;
+        }
+        if (dropBuffer.isFull()) {
+            // 缓冲区满时暂停，不再产生掉落物；放入份额用完导致的积压不算输出堵塞
+            if (MinerWorkBudget.INSTANCE.canInsert(budgetShare)) stats.outputStallTicks++;
+            activity.observe(MinerActivity.STALLED, 0F);
+            return;
+        }
+
+        // 满速时每tick投入 ENERGY[mTier] * 20 * 并行数 EU，并行数不超过队列中的矿石数
+        // 能量不足时只投入已储存的部分，挖掘按比例变慢而不是整 tick 停工
+        // 每个矿石共需 ENERGY * 20 * SPEED EU（能量守恒）
+        long energyPerOre = energyPerOre();
+        int parallel = Math.min(PARALLEL[mTier], oreBlockPositions.size());
+        long spend = Math.min(ENERGY[mTier] * 20L * parallel, energyPerOre * parallel - miningProgressEU);
+        if (spend > aBaseMetaTileEntity.getStoredEU()) {
+            stats.energyStallTicks++;
+            activity.observe(MinerActivity.STALLED, (float) aBaseMetaTileEntity.getStoredEU() / spend);
+            spend = aBaseMetaTileEntity.getStoredEU();
+        } else {
+            activity.observe(MinerActivity.MINING, 1F);
+        }
+        if (spend > 0) {
+            aBaseMetaTileEntity.decreaseStoredEnergyUnits(spend, true);
+            miningProgressEU += spend;
+        }
+
+        mineWithinBudget(aBaseMetaTileEntity);
+    }
+
+    /**
+     * 按已积累的进度挖掘，每 tick 的挖掘数受全服 {@link MinerWorkBudget} 限制
+     * 超出预算的进度保留为积压，下一 tick 继续；积压期间 onPostTick 不再额外扣能量
+     */
+    private void mineWithinBudget(IGregTechTileEntity aBaseMetaTileEntity) {
+        long energyPerOre = energyPerOre();
+        int wanted = (int) Math.min(miningProgressEU / energyPerOre, oreBlockPositions.size());
+        int allowed = MinerWorkBudget.INSTANCE.acquireBreaks(budgetShare, wanted);
+        int attempted = 0;
+        int deferred = 0;
+        while (attempted < allowed && !oreBlockPositions.isEmpty() && !dropBuffer.isFull()) {
+            int result = mineNextOre(aBaseMetaTileEntity);
+            if (result == ORE_DEFERRED) {
+                // 区块暂不可用的矿石已放回队尾，不占用本批次，继续挖后面的矿石；
+                // 整个队列都暂不可用或跳过太多时保留进度下次重试
+                if (++deferred >= MAX_DEFERRALS_PER_BURST || deferred > oreBlockPositions.size()) break;
+                continue;
             }
+            attempted++;
+            if (result == ORE_SKIPPED) continue; // 已不是可挖的矿石，不消耗进度
+            miningProgressEU -= energyPerOre;
+            // 只有确实挖到矿石才退出采空休眠，复查时重新入队的失效位置不会重置退避
+            if (depleted) wakeUp();
+        }
+        finishBurst(aBaseMetaTileEntity.getWorld());
+    }
+
+    /** 挖掘一个矿石所需的能量（EU） */
+    private long energyPerOre() {
+        return ENERGY[mTier] * 20L * mSpeed;
+    }
+
+    /**
+     * 一批挖掘结束：合并后的掉落物放入输出槽，放不下的进入缓冲区；批量更新光照
+     * 只有输出槽放不下的部分计为溢出，本 tick 放入份额用完而暂存的部分不计
+     */
+    private void finishBurst(World world) {
+        if (!burstDrops.isEmpty()) {
+            burstDrops.drainTo(stack -> {
+                if (MinerWorkBudget.INSTANCE.canInsert(budgetShare)) {
+                    int moved = insertOutput(stack);
+                    if (moved > 0) MinerWorkBudget.INSTANCE.chargeInsert(budgetShare);
+                    if (moved >= stack.stackSize) return moved;
+                    stats.spilledItems += stack.stackSize - moved;
+                    ItemStack rest = stack.copy();
+                    rest.stackSize -= moved;
+                    dropBuffer.add(rest);
+                } else {
+                    dropBuffer.add(stack);
+                }
+                return stack.stackSize;
+            });
+        }
+        extractor.flush(world);
+    }
+
+    /**
+     * 把输出槽和缓冲区中的物品整组推入前面相邻的容器
+     * 缓冲区直接推送，不经过只有两格的输出槽
+     */
+    private void exportOutputs(IGregTechTileEntity aBaseMetaTileEntity) {
+        ForgeDirection front = aBaseMetaTileEntity.getFrontFacing();
+        if (!isOutputFacing(front)) return; // 前面与主面重合时不输出
+        if (!exporter.bind(aBaseMetaTileEntity, front)) return;
+        if (MinerWorkBudget.INSTANCE.canInsert(budgetShare) && exporter.exportSlots(mInventory, getOutputSlot(), 2)) {
+            MinerWorkBudget.INSTANCE.chargeInsert(budgetShare);
+        }
+        if (!dropBuffer.isEmpty()) dropBuffer.drainTo(MinerWorkBudget.INSTANCE.limit(budgetShare, exporter::insert));
+    }
+
+    /**
+     * 扫描完成且矿石挖完后调用
+     * 有变化的区块段时只重扫这些区块段；否则进入采空休眠，按指数退避做全量复查，
+     * 用于兜底未触发方块更新的变化（如机器未加载期间发生的变化）
+     */
+    private void onQueueExhausted(long worldTime) {
+        deferredSince.clear();
+        if (!dirtySections.isEmpty()) {
+            rescanDirtySections();
             return;
         }
+        if (stealWork(worldTime)) return;
+        // 休眠期间不保留任何区块（复查时挖掘失效位置也可能重新加载了区块）
+        chunkLoader.release();
+        if (!depleted) {
+            depleted = true;
+            depletedBackoff = ModConfig.MINER_DEPLETED_BACKOFF_MIN;
+            nextDepletedCheck = worldTime + depletedBackoff;
+        } else if (worldTime >= nextDepletedCheck) {
+            depletedBackoff = Math.min(depletedBackoff * 2, ModConfig.MINER_DEPLETED_BACKOFF_MAX);
+            nextDepletedCheck = worldTime + depletedBackoff;
+            restartScan();
+        }
+    }
+
+    /** 挖到矿石或工作区域变化时退出采空休眠 */
+    private void wakeUp() {
+        depleted = false;
+        depletedBackoff = 0;
+    }
+
+    /** 重置扫描计划，从机器所在层重新全量扫描 */
+    private void restartScan() {
+        IGregTechTileEntity base = getBaseMetaTileEntity();
+        releaseClaims(); // 全量扫描时重新认领
+        veinSeeds.clear();
+        stats.startScan();
+        if (ModConfig.MINER_VEIN_GRID_SCAN) {
+            // 矿脉网格模式：先只扫描种子区块，见 advanceVeinPhase
+            veinPhase = 1;
+            scanPlan = MinerScanPlan.ofSections(
+                base.getXCoord(),
+                base.getYCoord(),
+                base.getZCoord(),
+                radiusConfig,
+                VeinGridPlanner.seedSections(base.getXCoord(), base.getYCoord(), base.getZCoord(), radiusConfig));
+        } else {
+            veinPhase = 0;
+            scanPlan = MinerScanPlan.full(base.getXCoord(), base.getYCoord(), base.getZCoord(), radiusConfig);
+        }
+        hasScanned = false;
+        dirtySections.clear();
+    }
 
-        // 阶段 2：挖掘阶段
-        if (!aBaseMetaTileEntity.isAllowedToWork()) return;
-        if (!hasFreeSpace()) return;
-        if (oreBlockPositions.isEmpty()) return; // 无矿石时不扣能量
+    /**
+     * 矿脉网格模式：当前阶段扫描完成后进入下一阶段
+     * 种子 → 种子周围含矿脉的区块段 → 其余区块段（需开启兜底扫描）
+     *
+     * @return false表示所有阶段都已完成
+     */
+    private boolean advanceVeinPhase() {
+        IGregTechTileEntity base = getBaseMetaTileEntity();
+        int x = base.getXCoord();
+        int y = base.getYCoord();
+        int z = base.getZCoord();
+        long[] sections = null;
+        if (veinPhase == 1) {
+            veinPhase = 2;
+            sections = VeinGridPlanner.veinSections(veinSeeds, x, y, z, radiusConfig);
+        } else if (veinPhase == 2 && ModConfig.MINER_VEIN_FALLBACK) {
+            veinPhase = 3;
+            sections = VeinGridPlanner.fallbackSections(veinSeeds, x, y, z, radiusConfig);
+        }
+        if (sections == null) {
+            veinPhase = 0;
+            veinSeeds.clear();
+            return false;
+        }
+        scanPlan = MinerScanPlan.ofSections(x, y, z, radiusConfig, sections);
+        return true;
+    }
 
-        // 每tick消耗 ENERGY[mTier] * 20 EU，产生 1 点进度
-        // ENERGY * 20 * SPEED = 原始总能耗/矿石（能量守恒）
-        long energyPerTick = ENERGY[mTier] * 20L;
-        if (!aBaseMetaTileEntity.isUniversalEnergyStored(energyPerTick)) return;
-        aBaseMetaTileEntity.decreaseStoredEnergyUnits(energyPerTick, true);
+    /** 为上次扫描以来变化过的区块段建立扫描计划，没有变化时保持空闲 */
+    private void rescanDirtySections() {
+        if (dirtySections.isEmpty()) return;
+        long[] sections = new long[dirtySections.size()];
+        int i = 0;
+        for (long key : dirtySections) {
+            sections[i++] = key;
+        }
+        dirtySections.clear();
+        stats.startScan();
+        IGregTechTileEntity base = getBaseMetaTileEntity();
+        scanPlan = MinerScanPlan
+            .ofSections(base.getXCoord(), base.getYCoord(), base.getZCoord(), radiusConfig, sections);
+        hasScanned = false;
+        veinPhase = 0;
+    }
 
-        currentMiningProgress += 1;
+    /**
+     * 是否仍需扫描，供 {@link MinerScanScheduler} 判断
+     * 机器已被移除或区块卸载时返回false
+     */
+    boolean needsScan() {
+        return !hasScanned && scanPlan != null && isLoadedInWorld();
+    }
 
-        // 一次性处理所有可能的挖掘
-        while (currentMiningProgress >= mSpeed && !oreBlockPositions.isEmpty()) {
-            currentMiningProgress -= mSpeed;
-            mineNextOre(aBaseMetaTileEntity);
+    /**
+     * 推进一个扫描单位：扫描计划中当前层的一个区块列
+     * 由 {@link MinerScanScheduler} 在预算内反复调用
+     *
+     * @return false表示正在等待异步扫描结果，本tick无需再调度
+     */
+    boolean scanStep() {
+        if (!scanPlan.isFinished()) {
+            long start = System.nanoTime();
+            boolean scanned = scanColumn(getBaseMetaTileEntity(), scanPlan);
+            stats.currentScanNanos += System.nanoTime() - start;
+            if (!scanned) return false;
+            scanPlan.advance();
         }
+        if (scanPlan.isFinished()) finishScan();
+        return true;
+    }
 
-        // 矿石挖完后触发重新扫描
-        if (oreBlockPositions.isEmpty()) {
-            scanYCursor = aBaseMetaTileEntity.getYCoord();
-            hasScanned = false;
+    private void finishScan() {
+        if (veinPhase != 0 && advanceVeinPhase()) return;
+        hasScanned = true;
+        scanPlan = null;
+        stats.finishScan();
+        chunkLoader.releaseScanning();
+        if (gregtech.api.enums.GTValues.debugBlockMiner) {
+            GTLog.out.println("MAXBATTERY MINER: Scan completed, found " + oreBlockPositions.size() + " ores");
         }
     }
 
-    /** 扫描指定Y层的矿石，遍历工作区域内所有方块 */
-    private void scanLayer(IGregTechTileEntity aBaseMetaTileEntity, int scanY) {
+    /**
+     * 扫描计划当前单位（一层中的一个区块列）与扫描范围相交的部分
+     * 区块段的候选矿石取自共享的 {@link OreIndex}，未缓存时才实际扫描
+     *
+     * @return false表示异步模式下该区块段仍在扫描中
+     */
+    private boolean scanColumn(IGregTechTileEntity aBaseMetaTileEntity, MinerScanPlan plan) {
+        World world = aBaseMetaTileEntity.getWorld();
         int machineX = aBaseMetaTileEntity.getXCoord();
+        int machineY = aBaseMetaTileEntity.getYCoord();
         int machineZ = aBaseMetaTileEntity.getZCoord();
-
-        for (int dz = -radiusConfig; dz <= radiusConfig; dz++) {
-            for (int dx = -radiusConfig; dx <= radiusConfig; dx++) {
-                int worldX = machineX + dx;
-                int worldZ = machineZ + dz;
-
-                // 检查区块是否存在且地形已生成
-                int chunkX = worldX >> 4;
-                int chunkZ = worldZ >> 4;
-                if (!aBaseMetaTileEntity.getWorld()
-                    .getChunkProvider()
-                    .chunkExists(chunkX, chunkZ)) {
-                    continue;
-                }
-                net.minecraft.world.chunk.Chunk chunk = aBaseMetaTileEntity.getWorld()
-                    .getChunkFromChunkCoords(chunkX, chunkZ);
-                if (!chunk.isTerrainPopulated) {
-                    continue;
+        int scanY = plan.currentY();
+        int chunkX = plan.currentChunkX();
+        int chunkZ = plan.currentChunkZ();
+
+        // 未加载的区块优先取离线图集，不为扫描加载区块；GT 矿石的校验推迟到挖掘时
+        int[] entries = null;
+        if (ModConfig.MINER_ATLAS_SEED && !world.getChunkProvider()
+            .chunkExists(chunkX, chunkZ)) {
+            entries = OreAtlas.INSTANCE.get(world, chunkX, scanY >> 4, chunkZ);
+        }
+        boolean fromAtlas = entries != null;
+        if (!fromAtlas) {
+            chunkLoader.load(world, chunkX, chunkZ, true);
+            if (ModConfig.MINER_ASYNC_SCAN) {
+                entries = OreIndex.INSTANCE.request(world, chunkX, scanY >> 4, chunkZ);
+                if (entries == OreIndex.PENDING) {
+                    // 当前区块段未就绪时，把同一区块列的下一个区块段一并提交，减少后续等待
+                    if (scanY >> 4 > 0) OreIndex.INSTANCE.request(world, chunkX, (scanY >> 4) - 1, chunkZ);
+                    return false;
                 }
+            } else {
+                entries = OreIndex.INSTANCE.get(world, chunkX, scanY >> 4, chunkZ);
+            }
+        }
+        if (entries == null || entries.length == 0) return true;
+        if (veinPhase == 1 && VeinGridPlanner.hasVeinOre(world, chunkX, scanY >> 4, chunkZ, entries)) {
+            veinSeeds.add(OreIndex.sectionKey(chunkX, scanY >> 4, chunkZ));
+        }
 
-                Block block = aBaseMetaTileEntity.getWorld()
-                    .getBlock(worldX, scanY, worldZ);
-                int meta = aBaseMetaTileEntity.getWorld()
-                    .getBlockMetadata(worldX, scanY, worldZ);
-
-                if (block instanceof BlockOresAbstract) {
-                    TileEntity te = aBaseMetaTileEntity.getWorld()
-                        .getTileEntity(worldX, scanY, worldZ);
-                    if (te instanceof TileEntityOres && ((TileEntityOres) te).mNatural) {
-                        oreBlockPositions.add(new ChunkPosition(dx, scanY - aBaseMetaTileEntity.getYCoord(), dz));
-                    }
-                } else if (GTUtility.isOre(block, meta)) {
-                    oreBlockPositions.add(new ChunkPosition(dx, scanY - aBaseMetaTileEntity.getYCoord(), dz));
-                }
+        // 认领区块段：已被其他运行中的采矿机认领时，双方工作区域重叠部分的矿石交给对方
+        long sectionKey = OreIndex.sectionKey(chunkX, scanY >> 4, chunkZ);
+        MaxBatteryMiner owner = MinerAreaRegistry.INSTANCE.claim(this, world, sectionKey);
+        if (owner == this) claimedSections.add(sectionKey);
+
+        int localY = scanY & 15;
+        for (int i = OreSectionScanner.firstEntryOfLayer(entries, localY); i < entries.length; i++) {
+            int index = OreSectionScanner.entryIndex(entries[i]);
+            if (index >> 8 != localY) break;
+            int x = (chunkX << 4) | (index & 15);
+            int z = (chunkZ << 4) | ((index >> 4) & 15);
+            if (!plan.contains(x, z)) continue;
+
+            int blockId = OreSectionScanner.entryBlockId(entries[i]);
+            int meta = OreSectionScanner.entryMeta(entries[i]);
+            byte type = OreClassifier.classify(blockId, meta);
+            TileEntityOres gtOre = null;
+            if (!ModConfig.MINER_ASYNC_SCAN && !fromAtlas && type == OreClassifier.GT_ORE) {
+                // GT 矿石需检查 TileEntity 的自然生成标记和材料过滤（异步模式推迟到挖掘时检查）
+                TileEntity te = world.getTileEntity(x, scanY, z);
+                if (!(te instanceof TileEntityOres) || !((TileEntityOres) te).mNatural) continue;
+                gtOre = (TileEntityOres) te;
             }
+            // 只跳过认领者确实会挖的矿石，被认领者过滤掉的矿石仍由本机挖掘
+            if (owner != this && owner.accepts(x, scanY, z, blockId, meta, type, gtOre)) continue;
+            if (type == OreClassifier.DICT_ORE && !oreFilter.allowsBlock(blockId, meta)) continue;
+            if (gtOre != null && !oreFilter.allowsGtOre(gtOre.mMetaData)) continue;
+            oreBlockPositions.add(x - machineX, scanY - machineY, z - machineZ);
         }
+        return true;
     }
 
-    /** 挖掘下一个矿石，从矿石列表取出并破坏方块 */
-    private void mineNextOre(IGregTechTileEntity aBaseMetaTileEntity) {
-        if (oreBlockPositions.isEmpty()) return;
-
-        ChunkPosition pos = oreBlockPositions.remove(0);
-        int x = aBaseMetaTileEntity.getXCoord() + pos.chunkPosX;
-        int y = aBaseMetaTileEntity.getYCoord() + pos.chunkPosY;
-        int z = aBaseMetaTileEntity.getZCoord() + pos.chunkPosZ;
-
-        if (!aBaseMetaTileEntity.getWorld().blockExists(x, y, z)) return;
+    /**
+     * 挖掘下一个矿石，从矿石列表取出并破坏方块
+     *
+     * @return {@link #ORE_MINED}；位置已不是可挖的矿石（如图集快照过期）时为 {@link #ORE_SKIPPED}，不应扣除进度；
+     *         矿石所在区块无法加载时为 {@link #ORE_DEFERRED}，矿石已放回队尾，本批次应停止
+     */
+    private int mineNextOre(IGregTechTileEntity aBaseMetaTileEntity) {
+        if (oreBlockPositions.isEmpty()) return ORE_SKIPPED;
+
+        int pos = oreBlockPositions.poll();
+        int x = aBaseMetaTileEntity.getXCoord() + OreQueue.unpackX(pos);
+        int y = aBaseMetaTileEntity.getYCoord() + OreQueue.unpackY(pos);
+        int z = aBaseMetaTileEntity.getZCoord() + OreQueue.unpackZ(pos);
+
+        // 区块未加载时把票据移到该区块；没有票据可用时把矿石放回队尾稍后重试，
+        // 持续超过 MINER_DEFER_EXPIRY 仍不可用时才丢弃，避免队列永远不空、机器无法休眠
+        if (!chunkLoader.load(aBaseMetaTileEntity.getWorld(), x >> 4, z >> 4, false)) {
+            long now = aBaseMetaTileEntity.getWorld()
+                .getTotalWorldTime();
+            Long since = deferredSince.putIfAbsent(pos, now);
+            if (since == null || now - since < ModConfig.MINER_DEFER_EXPIRY) {
+                oreBlockPositions.addPacked(pos);
+            } else {
+                deferredSince.remove(pos);
+            }
+            return ORE_DEFERRED;
+        }
+        if (!deferredSince.isEmpty()) deferredSince.remove(pos);
 
         Block block = aBaseMetaTileEntity.getWorld().getBlock(x, y, z);
         int meta = aBaseMetaTileEntity.getWorld().getBlockMetadata(x, y, z);
 
         boolean isValidOre = false;
-        if (block instanceof BlockOresAbstract) {
+        byte type = OreClassifier.classify(block, meta);
+        if (type == OreClassifier.GT_ORE) {
             TileEntity te = aBaseMetaTileEntity.getWorld().getTileEntity(x, y, z);
-            if (te instanceof TileEntityOres && ((TileEntityOres) te).mNatural) {
+            if (te instanceof TileEntityOres && ((TileEntityOres) te).mNatural
+                && oreFilter.allowsGtOre(((TileEntityOres) te).mMetaData)) {
                 isValidOre = true;
             }
-        } else if (GTUtility.isOre(block, meta)) {
-            isValidOre = true;
+        } else if (type == OreClassifier.DICT_ORE) {
+            // 过滤器可能在矿石入队后才修改，挖掘前再检查一次
+            isValidOre = oreFilter.allowsBlock(Block.getIdFromBlock(block), meta);
         }
 
-        if (!isValidOre) return;
+        if (!isValidOre) return ORE_SKIPPED;
 
+        // GT 矿石的掉落取决于 TileEntity，须在移除方块前取得
         List<ItemStack> drops = block.getDrops(aBaseMetaTileEntity.getWorld(), x, y, z, meta, mTier);
-        for (ItemStack drop : drops) {
-            if (drop != null && drop.stackSize > 0) {
-                if (!addOutputToSlot(drop.copy())) {
-                    // 输出槽满时掉落至世界
-                    aBaseMetaTileEntity.getWorld()
-                        .spawnEntityInWorld(
-                            new net.minecraft.entity.item.EntityItem(
-                                aBaseMetaTileEntity.getWorld(), x + 0.5, y + 0.5, z + 0.5, drop.copy()));
-                }
+        // 本机挖掉的矿石不标记为变化的区块段，否则挖过的区块段都会在队列耗尽后被整段重扫
+        MinerAreaRegistry.INSTANCE.setMinerRemoval(new int[] { x, y, z });
+        boolean removed;
+        try {
+            if (ModConfig.MINER_LOW_IMPACT_EXTRACTION) {
+                // 不通知邻居，光照在本批挖掘结束后重算
+                removed = extractor.remove(aBaseMetaTileEntity.getWorld(), x, y, z);
+            } else {
+                removed = aBaseMetaTileEntity.getWorld()
+                    .setBlockToAir(x, y, z);
             }
+        } finally {
+            MinerAreaRegistry.INSTANCE.setMinerRemoval(null);
+        }
+        if (!removed) return ORE_SKIPPED; // 方块未被移除时不产出掉落物
+
+        // 掉落物先按物品合并，批次结束时再统一放入输出槽（见 finishBurst）
+        for (ItemStack drop : drops) {
+            burstDrops.add(drop);
         }
-        aBaseMetaTileEntity.getWorld().setBlockToAir(x, y, z);
+        stats.recordMined(aBaseMetaTileEntity.getWorld()
+            .getTotalWorldTime());
+        return ORE_MINED;
     }
 
-    /** 将物品添加到输出槽，优先合并相同物品 */
-    private boolean addOutputToSlot(ItemStack stack) {
-        if (stack == null || stack.stackSize <= 0) return false;
+    /**
+     * 将物品放入输出槽，优先合并相同物品，允许只放入一部分
+     *
+     * @return 实际放入的数量，不修改传入的物品堆
+     */
+    private int insertOutput(ItemStack stack) {
+        if (stack == null || stack.stackSize <= 0) return 0;
 
-        for (int slotOffset = 0; slotOffset < 2; slotOffset++) {
+        int remaining = stack.stackSize;
+        for (int slotOffset = 0; slotOffset < 2 && remaining > 0; slotOffset++) {
+            int slot = getOutputSlot() + slotOffset;
+            if (mInventory[slot] != null && GTUtility.areStacksEqual(mInventory[slot], stack)) {
+                int moved = Math.min(remaining, mInventory[slot].getMaxStackSize() - mInventory[slot].stackSize);
+                if (moved > 0) {
+                    mInventory[slot].stackSize += moved;
+                    remaining -= moved;
+                }
+            }
+        }
+        for (int slotOffset = 0; slotOffset < 2 && remaining > 0; slotOffset++) {
             int slot = getOutputSlot() + slotOffset;
             if (mInventory[slot] == null) {
                 mInventory[slot] = stack.copy();
-                return true;
-            } else if (GTUtility.areStacksEqual(mInventory[slot], stack)
-                && mInventory[slot].stackSize + stack.stackSize <= mInventory[slot].getMaxStackSize()) {
-                    mInventory[slot].stackSize += stack.stackSize;
-                    return true;
-                }
+                mInventory[slot].stackSize = Math.min(remaining, stack.getMaxStackSize());
+                remaining -= mInventory[slot].stackSize;
+            }
         }
-        return false;
+        return stack.stackSize - remaining;
     }
 
     @Override
@@ -559,15 +1210,50 @@ public class MaxBatteryMiner extends MTEBasicMachine implements IAddUIWidgets {
     public void setItemNBT(NBTTagCompound aNBT) {
         super.setItemNBT(aNBT);
         if (radiusConfig != RADIUS[mTier]) aNBT.setInteger("radiusConfig", radiusConfig);
+        if (!oreFilter.isEmpty()) oreFilter.writeToNBT(aNBT);
     }
 
     @Override
     public void saveNBTData(NBTTagCompound aNBT) {
         super.saveNBTData(aNBT);
         aNBT.setInteger("radiusConfig", radiusConfig);
-        aNBT.setInteger("currentMiningProgress", currentMiningProgress);
+        aNBT.setLong("miningProgressEU", miningProgressEU);
         aNBT.setBoolean("hasScanned", hasScanned);
-        aNBT.setInteger("scanYCursor", scanYCursor);
+        if (scanPlan != null) scanPlan.writeToNBT(aNBT);
+        dropBuffer.writeToNBT(aNBT, "dropBuffer");
+        oreFilter.writeToNBT(aNBT);
+        aNBT.setBoolean("depleted", depleted);
+        aNBT.setInteger("depletedBackoff", depletedBackoff);
+        aNBT.setLong("nextDepletedCheck", nextDepletedCheck);
+        if (!dirtySections.isEmpty()) aNBT.setIntArray("dirtySections", packSectionKeys(dirtySections));
+        aNBT.setInteger("veinPhase", veinPhase);
+        if (!veinSeeds.isEmpty()) aNBT.setIntArray("veinSeeds", packSectionKeys(veinSeeds));
+        stats.writeToNBT(aNBT, "minerStats");
+        // 矿石队列以差分编码的 int 数组保存，避免重启/区块重载后全量重扫
+        IGregTechTileEntity base = getBaseMetaTileEntity();
+        if (base != null) {
+            aNBT.setIntArray("oreQueue", oreBlockPositions.toDeltaArray());
+            aNBT.setIntArray(
+                "oreQueueOrigin",
+                new int[] { base.getXCoord(), base.getYCoord(), base.getZCoord(), radiusConfig });
+        }
+    }
+
+    /** 区块段键集合以 int 对保存 */
+    private static int[] packSectionKeys(HashSet<Long> keys) {
+        int[] packed = new int[keys.size() * 2];
+        int i = 0;
+        for (long key : keys) {
+            packed[i++] = (int) (key >>> 32);
+            packed[i++] = (int) key;
+        }
+        return packed;
+    }
+
+    private static void unpackSectionKeys(int[] packed, HashSet<Long> keys) {
+        for (int i = 0; i + 1 < packed.length; i += 2) {
+            keys.add(((long) packed[i] << 32) | (packed[i + 1] & 0xFFFFFFFFL));
+        }
     }
 
     @Override
@@ -576,14 +1262,28 @@ public class MaxBatteryMiner extends MTEBasicMachine implements IAddUIWidgets {
         if (aNBT.hasKey("radiusConfig")) {
             radiusConfig = Math.min(RADIUS[mTier], Math.max(0, aNBT.getInteger("radiusConfig")));
         }
-        if (aNBT.hasKey("currentMiningProgress")) {
-            currentMiningProgress = aNBT.getInteger("currentMiningProgress");
+        if (aNBT.hasKey("miningProgressEU")) {
+            miningProgressEU = aNBT.getLong("miningProgressEU");
+        } else if (aNBT.hasKey("currentMiningProgress")) {
+            // 旧存档以tick计进度
+            miningProgressEU = aNBT.getInteger("currentMiningProgress") * ENERGY[mTier] * 20L;
         }
         if (aNBT.hasKey("hasScanned")) {
             hasScanned = aNBT.getBoolean("hasScanned");
         }
-        if (aNBT.hasKey("scanYCursor")) {
-            scanYCursor = aNBT.getInteger("scanYCursor");
+        if (aNBT.hasKey("dropBuffer")) dropBuffer.readFromNBT(aNBT, "dropBuffer");
+        if (aNBT.hasKey("oreFilterMode")) oreFilter.readFromNBT(aNBT);
+        depleted = aNBT.getBoolean("depleted");
+        depletedBackoff = aNBT.getInteger("depletedBackoff");
+        nextDepletedCheck = aNBT.getLong("nextDepletedCheck");
+        if (aNBT.hasKey("dirtySections")) unpackSectionKeys(aNBT.getIntArray("dirtySections"), dirtySections);
+        veinPhase = aNBT.getInteger("veinPhase");
+        if (aNBT.hasKey("veinSeeds")) unpackSectionKeys(aNBT.getIntArray("veinSeeds"), veinSeeds);
+        if (aNBT.hasKey("minerStats")) stats.readFromNBT(aNBT, "minerStats");
+        if (aNBT.hasKey("oreQueue") && aNBT.hasKey("oreQueueOrigin")) {
+            oreBlockPositions.loadDeltaArray(aNBT.getIntArray("oreQueue"));
+            restoredOrigin = aNBT.getIntArray("oreQueueOrigin");
+            restoredNBT = aNBT;
         }
     }
 
@@ -603,7 +1303,67 @@ public class MaxBatteryMiner extends MTEBasicMachine implements IAddUIWidgets {
                 + EnumChatFormatting.RED
                 + "20x "
                 + EnumChatFormatting.RESET
-                + StatCollector.translateToLocal("GT5U.machines.faster") };
+                + StatCollector.translateToLocal("GT5U.machines.faster"),
+            StatCollector.translateToLocal("maxbattery.miner.status") + ": " + getStatusText(),
+            StatCollector.translateToLocal("maxbattery.miner.filter") + ": "
+                + StatCollector.translateToLocal("maxbattery.miner.filter.mode." + oreFilter.getMode()),
+            StatCollector.translateToLocal("maxbattery.miner.stats.rate") + ": "
+                + EnumChatFormatting.GREEN
+                + stats.minedLastMinute(
+                    getBaseMetaTileEntity().getWorld()
+                        .getTotalWorldTime())
+                + EnumChatFormatting.RESET
+                + " / min ("
+                + StatCollector.translateToLocal("maxbattery.miner.stats.total")
+                + " "
+                + stats.totalMined
+                + ")",
+            StatCollector.translateToLocal("maxbattery.miner.stats.queue") + ": "
+                + EnumChatFormatting.GREEN
+                + oreBlockPositions.size()
+                + EnumChatFormatting.RESET,
+            StatCollector.translateToLocal("maxbattery.miner.stats.scan") + ": "
+                + EnumChatFormatting.YELLOW
+                + String.format("%.1f ms", stats.lastScanNanos / 1_000_000.0)
+                + EnumChatFormatting.RESET,
+            StatCollector.translateToLocal("maxbattery.miner.stats.energyStall") + ": "
+                + EnumChatFormatting.RED
+                + stats.energyStallTicks
+                + EnumChatFormatting.RESET
+                + " tick, "
+                + StatCollector.translateToLocal("maxbattery.miner.stats.outputStall")
+                + ": "
+                + EnumChatFormatting.RED
+                + stats.outputStallTicks
+                + EnumChatFormatting.RESET
+                + " tick",
+            StatCollector.translateToLocal("maxbattery.miner.stats.spilled") + ": "
+                + EnumChatFormatting.YELLOW
+                + stats.spilledItems
+                + EnumChatFormatting.RESET };
+    }
+
+    /** 当前工作状态，显示在扫描仪信息中 */
+    private String getStatusText() {
+        if (depleted && oreBlockPositions.isEmpty()) {
+            long now = getBaseMetaTileEntity().getWorld()
+                .getTotalWorldTime();
+            return EnumChatFormatting.GRAY + StatCollector.translateToLocal("maxbattery.miner.status.depleted")
+                + EnumChatFormatting.RESET
+                + String.format(
+                    " (%s %ds)",
+                    StatCollector.translateToLocal("maxbattery.miner.status.recheck"),
+                    hasScanned ? Math.max(0, (nextDepletedCheck - now) / 20) : 0);
+        }
+        if (!hasScanned) {
+            return EnumChatFormatting.YELLOW + StatCollector.translateToLocal("maxbattery.miner.status.scanning")
+                + EnumChatFormatting.RESET;
+        }
+        return EnumChatFormatting.GREEN + StatCollector.translateToLocal("maxbattery.miner.status.mining")
+            + EnumChatFormatting.RESET
+            + " ("
+            + oreBlockPositions.size()
+            + ")";
     }
 
     @Override
@@ -619,6 +1379,17 @@ public class MaxBatteryMiner extends MTEBasicMachine implements IAddUIWidgets {
         return SoundResource.GTCEU_LOOP_MINER;
     }
 
+    /** 机器被破坏时丢出缓冲区中的掉落物（输出槽物品由 GT 负责掉落） */
+    @Override
+    public void onBlockDestroyed() {
+        super.onBlockDestroyed();
+        IGregTechTileEntity base = getBaseMetaTileEntity();
+        if (base != null && base.isServerSide() && !dropBuffer.isEmpty()) {
+            dropBuffer
+                .dropAll(base.getWorld(), base.getXCoord() + 0.5, base.getYCoord() + 0.5, base.getZCoord() + 0.5);
+        }
+    }
+
     /** 机器爆炸时丢出所有库存物品 */
     @Override
     public void onExplosion() {
@@ -635,25 +1406,54 @@ public class MaxBatteryMiner extends MTEBasicMachine implements IAddUIWidgets {
                 mInventory[i] = null;
             }
         }
+        if (!dropBuffer.isEmpty()) {
+            IGregTechTileEntity base = getBaseMetaTileEntity();
+            dropBuffer
+                .dropAll(base.getWorld(), base.getXCoord() + 0.5, base.getYCoord() + 0.5, base.getZCoord() + 0.5);
+        }
     }
 
     /** 适配加速火把 - 增加进度并触发挖掘 */
     public void increaseProgressForAccelerator(int aProgressAmount) {
-        currentMiningProgress += aProgressAmount;
-
-        while (currentMiningProgress >= mSpeed) {
-            currentMiningProgress -= mSpeed;
-            if (oreBlockPositions.isEmpty()) {
-                scanYCursor = getBaseMetaTileEntity().getYCoord();
-                hasScanned = false;
-                return;
+        // 加速进度以tick计，换算为对应的能量进度（不消耗能量）
+        // 实际挖掘数受全服预算限制，超出部分作为积压在后续 tick 挖掘
+        long energyPerOre = energyPerOre();
+        miningProgressEU += aProgressAmount * ENERGY[mTier] * 20L;
+
+        if (dropBuffer.isFull()) {
+            miningProgressEU = Math.min(miningProgressEU, energyPerOre); // 缓冲区满时保留一个矿石的进度
+            return;
+        }
+        if (oreBlockPositions.isEmpty()) {
+            // 没有可挖的矿石，积压无处可用
+            miningProgressEU = Math.min(miningProgressEU, energyPerOre);
+            if (hasScanned) {
+                onQueueExhausted(getBaseMetaTileEntity().getWorld()
+                    .getTotalWorldTime());
             }
-            mineNextOre(getBaseMetaTileEntity());
+            return;
         }
+        mineWithinBudget(getBaseMetaTileEntity());
     }
 
-    /** 返回当前进度，供加速火把使用 */
+    /**
+     * 返回平滑后的工作进度（0 - {@link #maxProgresstime()}），供界面和加速火把使用
+     * 服务端与客户端都取已同步的值，两端一致
+     */
+    @Override
     public int getProgresstime() {
-        return currentMiningProgress > 0 ? currentMiningProgress : 0;
+        return activity.progress();
+    }
+
+    @Override
+    public int maxProgresstime() {
+        return MinerActivity.PROGRESS_MAX;
+    }
+
+    /** 客户端接收活动状态 */
+    @Override
+    public void receiveClientEvent(byte aEventID, byte aValue) {
+        super.receiveClientEvent(aEventID, aValue);
+        if (aEventID == MinerActivity.EVENT_ID) activity.receive(aValue);
     }
 }
@@ -0,0 +1,77 @@
+package com.github.vividfuzhu.maxbattery.machine.miner;
+
+import com.github.vividfuzhu.maxbattery.config.ModConfig;
+
+/**
+ * 采矿机活动状态同步 - 把状态和平滑后的进度压缩为一个字节，变化时发送到客户端。
+ *
+ * 字节格式：高2位为状态（空闲 / 扫描 / 挖掘 / 停滞），低6位为进度（0-63）。
+ * 服务端每 tick 观测一次，进度做指数平滑；两次发送之间至少间隔
+ * {@link ModConfig#MINER_SYNC_INTERVAL} tick，间隔内的来回切换被合并，
+ * 因此密集的采矿机阵列不会持续产生方块事件，客户端的工作音效也不会反复重启。
+ * 状态不变时每 {@link ModConfig#MINER_SYNC_REFRESH} tick 重发一次，之后才加载区块的玩家也能收到当前状态。
+ * 工作状态（setActive）同样以已发送的状态为准。
+ */
+final class MinerActivity {
+
+    static final int IDLE = 0;
+    static final int SCANNING = 1;
+    static final int MINING = 2;
+    static final int STALLED = 3;
+
+    /** 方块事件ID，避开 GT 自身的 GregTechTileClientEvents */
+    static final byte EVENT_ID = 100;
+
+    static final int PROGRESS_MAX = 63;
+
+    /** 指数平滑系数，约 10 tick 跟上变化 */
+    private static final float SMOOTHING = 0.1F;
+
+    private float smoothed;
+    private int observedStatus = IDLE;
+
+    /** 最近一次发送（客户端为最近一次收到）的状态字节 */
+    private int synced = -1;
+    /** 初始值保证第一次 poll 就发送，且 tick 差值不会溢出 */
+    private long lastSyncTick = -ModConfig.MINER_SYNC_REFRESH;
+
+    /** 服务端：记录本 tick 的状态和进度（0-1） */
+    void observe(int status, float fraction) {
+        observedStatus = status;
+        smoothed += (Math.max(0F, Math.min(1F, fraction)) - smoothed) * SMOOTHING;
+    }
+
+    /**
+     * 服务端：判断是否需要发送
+     *
+     * @return 需要发送的状态字节；无变化且未到重发时间，或未到发送间隔时返回 -1
+     */
+    int poll(long tick) {
+        int packed = (observedStatus << 6) | Math.round(smoothed * PROGRESS_MAX);
+        long elapsed = tick - lastSyncTick;
+        if (elapsed < ModConfig.MINER_SYNC_INTERVAL) return -1;
+        if (packed == synced && elapsed < ModConfig.MINER_SYNC_REFRESH) return -1;
+        synced = packed;
+        lastSyncTick = tick;
+        return packed;
+    }
+
+    /** 客户端：收到状态字节 */
+    void receive(byte value) {
+        synced = value & 0xFF;
+    }
+
+    int status() {
+        return synced < 0 ? IDLE : synced >>> 6;
+    }
+
+    int progress() {
+        return synced < 0 ? 0 : synced & PROGRESS_MAX;
+    }
+
+    /** 扫描和挖掘时视为工作中（显示工作材质、播放音效） */
+    boolean isWorking() {
+        int status = status();
+        return status == SCANNING || status == MINING;
+    }
+}
@@ -0,0 +1,175 @@
+package com.github.vividfuzhu.maxbattery.machine.miner;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import net.minecraft.world.World;
+
+import gregtech.api.interfaces.tileentity.IGregTechTileEntity;
+
+/**
+ * 采矿机区域登记表 - 按维度记录每个区块列被哪些采矿机的工作区域覆盖。
+ *
+ * 方块变化时由 {@link MinerWorldAccess} 查询，把变化的区块段通知给覆盖它的采矿机，
+ * 采矿机据此只重扫变化过的区块段。已移除的采矿机在查询时顺带清理。
+ *
+ * 工作区域重叠时，采矿机扫描前先认领区块段：区块段内同时位于认领者工作区域中的矿石只由认领者入队，
+ * 避免两台采矿机重复挖掘同一矿石。认领者已卸载时其认领可被接管。
+ * 空闲的采矿机通过 {@link #neighbours} 找到重叠的采矿机并分担其队列。
+ * 所有方法只在服务端主线程调用。
+ */
+public final class MinerAreaRegistry {
+
+    public static final MinerAreaRegistry INSTANCE = new MinerAreaRegistry();
+
+    /** 维度ID → (区块列键 → 覆盖该区块列的采矿机) */
+    private final HashMap<Integer, HashMap<Long, ArrayList<MaxBatteryMiner>>> dimensions = new HashMap<>();
+
+    /** 维度ID → (区块段键 → 认领该区块段的采矿机) */
+    private final HashMap<Integer, HashMap<Long, MaxBatteryMiner>> claims = new HashMap<>();
+
+    /** 采矿机正在移除的方块 {x, y, z}，其引起的方块变化不通知采矿机；为null表示没有 */
+    private int[] minerRemoval = null;
+
+    private MinerAreaRegistry() {}
+
+    public static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    /**
+     * 登记采矿机的工作区域（区块坐标闭区间）
+     */
+    public void register(MaxBatteryMiner miner, int dimensionId, int minChunkX, int maxChunkX, int minChunkZ,
+        int maxChunkZ) {
+        HashMap<Long, ArrayList<MaxBatteryMiner>> chunks = dimensions
+            .computeIfAbsent(dimensionId, k -> new HashMap<>());
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                ArrayList<MaxBatteryMiner> miners = chunks
+                    .computeIfAbsent(chunkKey(chunkX, chunkZ), k -> new ArrayList<>(2));
+                if (!miners.contains(miner)) miners.add(miner);
+            }
+        }
+    }
+
+    /**
+     * 注销采矿机在给定区域（区块坐标闭区间）的登记
+     */
+    public void unregister(MaxBatteryMiner miner, int dimensionId, int minChunkX, int maxChunkX, int minChunkZ,
+        int maxChunkZ) {
+        HashMap<Long, ArrayList<MaxBatteryMiner>> chunks = dimensions.get(dimensionId);
+        if (chunks == null) return;
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                long key = chunkKey(chunkX, chunkZ);
+                ArrayList<MaxBatteryMiner> miners = chunks.get(key);
+                if (miners == null) continue;
+                miners.remove(miner);
+                if (miners.isEmpty()) chunks.remove(key);
+            }
+        }
+    }
+
+    /**
+     * 标记采矿机自己正在移除的方块：挖掉矿石只会减少矿石，不需要任何采矿机重扫该区块段
+     *
+     * @param pos 方块坐标 {x, y, z}，移除结束后传 null
+     */
+    void setMinerRemoval(int[] pos) {
+        minerRemoval = pos;
+    }
+
+    /** 方块变化：通知覆盖该区块列的采矿机 */
+    public void onBlockChanged(World world, int x, int y, int z) {
+        if (y < 0 || y > 255) return;
+        if (minerRemoval != null && minerRemoval[0] == x && minerRemoval[1] == y && minerRemoval[2] == z) return;
+        HashMap<Long, ArrayList<MaxBatteryMiner>> chunks = dimensions.get(world.provider.dimensionId);
+        if (chunks == null) return;
+        ArrayList<MaxBatteryMiner> miners = chunks.get(chunkKey(x >> 4, z >> 4));
+        if (miners == null) return;
+        for (int i = miners.size() - 1; i >= 0; i--) {
+            MaxBatteryMiner miner = miners.get(i);
+            if (!miner.isLoadedInWorld()) {
+                miners.remove(i);
+                continue;
+            }
+            miner.onSectionChanged(x >> 4, y >> 4, z >> 4);
+        }
+    }
+
+    /** 区块卸载：位于该区块的采矿机释放区块票据并注销登记 */
+    public void onChunkUnload(World world, int chunkX, int chunkZ) {
+        HashMap<Long, ArrayList<MaxBatteryMiner>> chunks = dimensions.get(world.provider.dimensionId);
+        if (chunks == null) return;
+        ArrayList<MaxBatteryMiner> miners = chunks.get(chunkKey(chunkX, chunkZ));
+        if (miners == null) return;
+        // 注销会修改登记列表，先收集再处理
+        ArrayList<MaxBatteryMiner> unloaded = null;
+        for (MaxBatteryMiner miner : miners) {
+            IGregTechTileEntity base = miner.getBaseMetaTileEntity();
+            if (base != null && base.getXCoord() >> 4 == chunkX && base.getZCoord() >> 4 == chunkZ) {
+                if (unloaded == null) unloaded = new ArrayList<>(1);
+                unloaded.add(miner);
+            }
+        }
+        if (unloaded == null) return;
+        for (MaxBatteryMiner miner : unloaded) {
+            miner.onMachineChunkUnload();
+        }
+    }
+
+    /**
+     * 认领区块段
+     *
+     * @return 认领后该区块段的所有者：未被认领、原所有者已卸载或就是自己时返回 miner 本身
+     */
+    public MaxBatteryMiner claim(MaxBatteryMiner miner, World world, long sectionKey) {
+        HashMap<Long, MaxBatteryMiner> sections = claims
+            .computeIfAbsent(world.provider.dimensionId, k -> new HashMap<>());
+        MaxBatteryMiner owner = sections.get(sectionKey);
+        if (owner != null && owner != miner && owner.isLoadedInWorld()) return owner;
+        sections.put(sectionKey, miner);
+        return miner;
+    }
+
+    /** 释放采矿机的认领 */
+    public void releaseClaims(MaxBatteryMiner miner, int dimensionId, Iterable<Long> sectionKeys) {
+        HashMap<Long, MaxBatteryMiner> sections = claims.get(dimensionId);
+        if (sections == null) return;
+        for (long key : sectionKeys) {
+            if (sections.get(key) == miner) sections.remove(key);
+        }
+    }
+
+    /**
+     * 工作区域（区块坐标闭区间）与给定区域重叠、仍在运行的其他采矿机
+     */
+    public ArrayList<MaxBatteryMiner> neighbours(MaxBatteryMiner miner, int dimensionId, int minChunkX,
+        int maxChunkX, int minChunkZ, int maxChunkZ) {
+        ArrayList<MaxBatteryMiner> result = new ArrayList<>();
+        HashMap<Long, ArrayList<MaxBatteryMiner>> chunks = dimensions.get(dimensionId);
+        if (chunks == null) return result;
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                ArrayList<MaxBatteryMiner> miners = chunks.get(chunkKey(chunkX, chunkZ));
+                if (miners == null) continue;
+                for (MaxBatteryMiner other : miners) {
+                    if (other != miner && !result.contains(other) && other.isLoadedInWorld()) result.add(other);
+                }
+            }
+        }
+        return result;
+    }
+
+    /** 服务器停止时清空 */
+    public void clear() {
+        dimensions.clear();
+        claims.clear();
+    }
+
+    public void onWorldUnload(World world) {
+        dimensions.remove(world.provider.dimensionId);
+        claims.remove(world.provider.dimensionId);
+    }
+}
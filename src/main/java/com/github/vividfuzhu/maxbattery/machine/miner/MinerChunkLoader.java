@@ -0,0 +1,98 @@
+package com.github.vividfuzhu.maxbattery.machine.miner;
+
+import net.minecraft.world.ChunkCoordIntPair;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.IChunkProvider;
+import net.minecraft.world.chunk.storage.AnvilChunkLoader;
+import net.minecraft.world.chunk.storage.IChunkLoader;
+import net.minecraft.world.gen.ChunkProviderServer;
+import net.minecraftforge.common.ForgeChunkManager;
+
+import com.github.vividfuzhu.maxbattery.MaxBattery;
+import com.github.vividfuzhu.maxbattery.config.ModConfig;
+
+/**
+ * 采矿机区块加载 - 每台采矿机只持有一张 Forge 区块票据，随工作位置移动。
+ *
+ * 票据最多强制加载两个区块：正在挖掘的区块和正在扫描的区块。
+ * 扫描计划与矿石队列都按区块列排序，因此采矿机逐个区块推进，
+ * 不再需要玩家把整个工作区域常驻加载。
+ * 票据不跨存档保留：世界加载时恢复的旧票据一律释放，由采矿机运行时重新申请。
+ * 只加载存档中已存在的区块，从未生成过的区块不会因采矿机而生成。
+ */
+public final class MinerChunkLoader {
+
+    /** 区块加载回调，在 mod 初始化时注册 */
+    public static final ForgeChunkManager.LoadingCallback CALLBACK = (tickets, world) -> {
+        for (ForgeChunkManager.Ticket ticket : tickets) {
+            ForgeChunkManager.releaseTicket(ticket);
+        }
+    };
+
+    private ForgeChunkManager.Ticket ticket;
+    private ChunkCoordIntPair miningChunk;
+    private ChunkCoordIntPair scanningChunk;
+
+    /** 票据申请被拒绝（超出配额），释放前不再重复申请 */
+    private boolean denied;
+
+    /**
+     * 确保区块已加载，必要时把票据移动到该区块
+     *
+     * @param forScan true 表示扫描用区块，false 表示挖掘用区块
+     * @return 区块是否可用；关闭区块加载或票据申请失败时退化为检查区块是否已加载，
+     *         区块从未生成时返回 false
+     */
+    public boolean load(World world, int chunkX, int chunkZ, boolean forScan) {
+        if (!existsOnDisk(world, chunkX, chunkZ)) return false;
+        if (ModConfig.MINER_CHUNK_LOADING && ticket == null && !denied) {
+            ticket = ForgeChunkManager.requestTicket(MaxBattery.instance, world, ForgeChunkManager.Type.NORMAL);
+            denied = ticket == null;
+        }
+        if (ticket == null) {
+            return world.getChunkProvider()
+                .chunkExists(chunkX, chunkZ);
+        }
+
+        ChunkCoordIntPair target = new ChunkCoordIntPair(chunkX, chunkZ);
+        ChunkCoordIntPair current = forScan ? scanningChunk : miningChunk;
+        if (!target.equals(current)) {
+            ChunkCoordIntPair other = forScan ? miningChunk : scanningChunk;
+            if (current != null && !current.equals(other)) ForgeChunkManager.unforceChunk(ticket, current);
+            if (!target.equals(other)) ForgeChunkManager.forceChunk(ticket, target);
+            if (forScan) {
+                scanningChunk = target;
+            } else {
+                miningChunk = target;
+            }
+        }
+        // 强制加载只阻止卸载，尚未加载的区块在此读入
+        world.getChunkFromChunkCoords(chunkX, chunkZ);
+        return true;
+    }
+
+    /** 区块已加载或已保存在区域文件中 */
+    private static boolean existsOnDisk(World world, int chunkX, int chunkZ) {
+        IChunkProvider provider = world.getChunkProvider();
+        if (provider.chunkExists(chunkX, chunkZ)) return true;
+        if (!(provider instanceof ChunkProviderServer)) return false;
+        IChunkLoader loader = ((ChunkProviderServer) provider).currentChunkLoader;
+        return loader instanceof AnvilChunkLoader && ((AnvilChunkLoader) loader).chunkExists(world, chunkX, chunkZ);
+    }
+
+    /** 不再扫描时释放扫描用区块 */
+    public void releaseScanning() {
+        if (ticket == null || scanningChunk == null) return;
+        if (!scanningChunk.equals(miningChunk)) ForgeChunkManager.unforceChunk(ticket, scanningChunk);
+        scanningChunk = null;
+    }
+
+    /** 释放票据及其加载的所有区块（机器移除或空闲时） */
+    public void release() {
+        if (ticket != null) ForgeChunkManager.releaseTicket(ticket);
+        ticket = null;
+        denied = false;
+        miningChunk = null;
+        scanningChunk = null;
+    }
+}
@@ -0,0 +1,124 @@
+package com.github.vividfuzhu.maxbattery.machine.miner;
+
+import net.minecraft.inventory.IInventory;
+import net.minecraft.inventory.ISidedInventory;
+import net.minecraft.item.ItemStack;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraftforge.common.util.ForgeDirection;
+
+import gregtech.api.interfaces.tileentity.IGregTechTileEntity;
+import gregtech.api.util.GTUtility;
+
+/**
+ * 采矿机自动输出 - 把整组物品直接推入输出面相邻的 {@link IInventory} / {@link ISidedInventory}。
+ *
+ * 目标容器及其可插入的槽位列表在两次推送之间缓存，只在相邻方块或槽位数变化时重新获取，
+ * 因此高频推送的开销只剩合并物品本身。
+ */
+public final class MinerExporter {
+
+    private TileEntity cachedTarget;
+    private ForgeDirection cachedSide;
+    private int cachedSize;
+    private int[] cachedSlots;
+
+    /** 当前推送目标，每次推送前由 {@link #bind} 设置 */
+    private IInventory inventory;
+    private ISidedInventory sided;
+    private int insertSide;
+
+    /**
+     * 绑定输出面的相邻容器，复用上次缓存的槽位列表
+     *
+     * @return 相邻方块是否为可插入的容器
+     */
+    public boolean bind(IGregTechTileEntity base, ForgeDirection side) {
+        TileEntity tile = base.getTileEntityAtSide(side);
+        if (!(tile instanceof IInventory) || tile.isInvalid()) {
+            invalidate();
+            return false;
+        }
+        inventory = (IInventory) tile;
+        sided = tile instanceof ISidedInventory ? (ISidedInventory) tile : null;
+        insertSide = side.getOpposite()
+            .ordinal();
+        if (tile != cachedTarget || side != cachedSide || inventory.getSizeInventory() != cachedSize) {
+            cachedTarget = tile;
+            cachedSide = side;
+            cachedSize = inventory.getSizeInventory();
+            cachedSlots = sided != null ? sided.getAccessibleSlotsFromSide(insertSide) : allSlots(cachedSize);
+            if (cachedSlots == null) cachedSlots = new int[0];
+        }
+        return cachedSlots.length > 0;
+    }
+
+    /**
+     * 向已绑定的容器推入一组物品：先合并到相同物品，再放入空槽
+     *
+     * @return 实际推入的数量，不修改传入的物品堆
+     */
+    public int insert(ItemStack stack) {
+        if (inventory == null || stack == null || stack.stackSize <= 0) return 0;
+
+        int limit = Math.min(inventory.getInventoryStackLimit(), stack.getMaxStackSize());
+        int remaining = stack.stackSize;
+        for (int slot : cachedSlots) {
+            ItemStack existing = inventory.getStackInSlot(slot);
+            if (existing == null || !GTUtility.areStacksEqual(existing, stack)) continue;
+            int moved = Math.min(remaining, limit - existing.stackSize);
+            if (moved <= 0 || !canInsert(slot, stack)) continue;
+            existing.stackSize += moved;
+            remaining -= moved;
+            if (remaining == 0) break;
+        }
+        for (int slot : cachedSlots) {
+            if (remaining == 0) break;
+            if (inventory.getStackInSlot(slot) != null || !canInsert(slot, stack)) continue;
+            ItemStack placed = stack.copy();
+            placed.stackSize = Math.min(remaining, limit);
+            inventory.setInventorySlotContents(slot, placed);
+            remaining -= placed.stackSize;
+        }
+        int inserted = stack.stackSize - remaining;
+        if (inserted > 0) inventory.markDirty();
+        return inserted;
+    }
+
+    /**
+     * 把给定槽位区间的物品整组推入已绑定的容器
+     *
+     * @return 是否推出了任何物品
+     */
+    public boolean exportSlots(ItemStack[] slots, int first, int count) {
+        boolean moved = false;
+        for (int i = first; i < first + count; i++) {
+            if (slots[i] == null) continue;
+            int inserted = insert(slots[i]);
+            if (inserted <= 0) continue;
+            moved = true;
+            slots[i].stackSize -= inserted;
+            if (slots[i].stackSize <= 0) slots[i] = null;
+        }
+        return moved;
+    }
+
+    /** 解除绑定，下次推送时重新获取目标 */
+    public void invalidate() {
+        cachedTarget = null;
+        cachedSide = null;
+        cachedSlots = null;
+        inventory = null;
+        sided = null;
+    }
+
+    private boolean canInsert(int slot, ItemStack stack) {
+        if (!inventory.isItemValidForSlot(slot, stack)) return false;
+        return sided == null || sided.canInsertItem(slot, stack, insertSide);
+    }
+
+    private static int[] allSlots(int size) {
+        int[] slots = new int[size];
+        for (int i = 0; i < size; i++) slots[i] = i;
+        return slots;
+    }
+}
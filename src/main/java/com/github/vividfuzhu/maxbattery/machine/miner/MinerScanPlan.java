@@ -0,0 +1,192 @@
+package com.github.vividfuzhu.maxbattery.machine.miner;
+
+import java.util.Arrays;
+
+import net.minecraft.nbt.NBTTagCompound;
+
+/**
+ * 采矿机扫描计划 - 描述一次扫描要访问的 "层 × 区块列" 单位及当前进度。
+ *
+ * 两种计划：
+ * <ul>
+ *   <li>全量计划：逐个遍历工作区域覆盖的区块列，每个区块列从机器所在层向下扫描到 Y=0；
+ *       可指定排除半径，只扫描半径扩大后新增的环形区域</li>
+ *   <li>区块段计划：只重扫给定的区块段（方块变化过的区块段），每段从上到下逐层扫描</li>
+ * </ul>
+ * 两种计划都按区块列推进（同一区块列的单位连续），采矿机一次只需加载一个区块。
+ * 单位粒度为一层中的一个区块列，任意单位之后都可中断并恢复。
+ */
+public final class MinerScanPlan {
+
+    private final int originX;
+    private final int originY;
+    private final int originZ;
+    private final int radius;
+
+    /** 排除半径：该半径内的方块不扫描，-1 表示不排除 */
+    private final int excludeRadius;
+
+    /** 区块段计划的区块段键列表（见 {@link OreIndex#sectionKey}），null 表示全量计划 */
+    private final long[] sections;
+
+    private int yCursor;
+    private int columnCursor;
+
+    private MinerScanPlan(int originX, int originY, int originZ, int radius, int excludeRadius, long[] sections) {
+        this.originX = originX;
+        this.originY = originY;
+        this.originZ = originZ;
+        this.radius = radius;
+        this.excludeRadius = excludeRadius;
+        this.sections = sections;
+        this.columnCursor = 0;
+        this.yCursor = sections == null ? originY : sectionTop(0);
+    }
+
+    /** 全量扫描计划 */
+    public static MinerScanPlan full(int originX, int originY, int originZ, int radius) {
+        return new MinerScanPlan(originX, originY, originZ, radius, -1, null);
+    }
+
+    /** 环形扫描计划：只扫描 excludeRadius 之外、radius 之内的区域 */
+    public static MinerScanPlan ring(int originX, int originY, int originZ, int radius, int excludeRadius) {
+        return new MinerScanPlan(originX, originY, originZ, radius, excludeRadius, null);
+    }
+
+    /** 区块段扫描计划，区块段按区块列分组、组内按Y从高到低排序后逐段扫描 */
+    public static MinerScanPlan ofSections(int originX, int originY, int originZ, int radius, long[] sectionKeys) {
+        // 区块段键低4位为区块段Y，降序排序即按区块列分组且组内Y降序；丢弃高于机器的区块段
+        long[] ordered = new long[sectionKeys.length];
+        int count = 0;
+        for (long key : sectionKeys) {
+            if ((key & 0xF) <= originY >> 4) ordered[count++] = key;
+        }
+        ordered = Arrays.copyOf(ordered, count);
+        Arrays.sort(ordered);
+        for (int i = 0, j = count - 1; i < j; i++, j--) {
+            long swap = ordered[i];
+            ordered[i] = ordered[j];
+            ordered[j] = swap;
+        }
+        return new MinerScanPlan(originX, originY, originZ, radius, -1, ordered);
+    }
+
+    public boolean isFinished() {
+        return columnCursor >= (sections == null ? chunksX() * chunksZ() : sections.length);
+    }
+
+    /** 已完成的区块列比例（0-1），用于显示扫描进度 */
+    public float progress() {
+        int total = sections == null ? chunksX() * chunksZ() : sections.length;
+        return total == 0 ? 1F : Math.min(1F, (float) columnCursor / total);
+    }
+
+    /** 当前单位的Y层 */
+    public int currentY() {
+        return yCursor;
+    }
+
+    public int currentChunkX() {
+        if (sections != null) return sectionChunkX(sections[columnCursor]);
+        return minChunkX() + columnCursor % chunksX();
+    }
+
+    public int currentChunkZ() {
+        if (sections != null) return sectionChunkZ(sections[columnCursor]);
+        return minChunkZ() + columnCursor / chunksX();
+    }
+
+    /** 前进到下一个扫描单位 */
+    public void advance() {
+        if (isFinished()) return;
+        if (sections == null) {
+            if (--yCursor < 0) {
+                yCursor = originY;
+                columnCursor++;
+            }
+        } else if (--yCursor < ((int) (sections[columnCursor] & 0xF)) << 4) {
+            columnCursor++;
+            if (columnCursor < sections.length) yCursor = sectionTop(columnCursor);
+        }
+    }
+
+    /** 判断方块是否属于本计划的扫描范围 */
+    public boolean contains(int x, int z) {
+        int dx = Math.abs(x - originX);
+        int dz = Math.abs(z - originZ);
+        if (dx > radius || dz > radius) return false;
+        return excludeRadius < 0 || dx > excludeRadius || dz > excludeRadius;
+    }
+
+    private int minChunkX() {
+        return (originX - radius) >> 4;
+    }
+
+    private int minChunkZ() {
+        return (originZ - radius) >> 4;
+    }
+
+    private int chunksX() {
+        return ((originX + radius) >> 4) - minChunkX() + 1;
+    }
+
+    private int chunksZ() {
+        return ((originZ + radius) >> 4) - minChunkZ() + 1;
+    }
+
+    private int sectionTop(int i) {
+        if (i >= sections.length) return -1;
+        return Math.min(originY, (((int) (sections[i] & 0xF)) << 4) + 15);
+    }
+
+    static int sectionChunkX(long key) {
+        return (int) (key << 16 >> 42); // 高22位，带符号扩展
+    }
+
+    static int sectionChunkZ(long key) {
+        return (int) (key << 38 >> 42); // 第4-25位，带符号扩展
+    }
+
+    public void writeToNBT(NBTTagCompound aNBT) {
+        aNBT.setInteger("scanYCursor", yCursor);
+        aNBT.setInteger("scanColumnCursor", columnCursor);
+        aNBT.setInteger("scanExcludeRadius", excludeRadius);
+        aNBT.setBoolean("scanChunkMajor", true);
+        if (sections != null) {
+            int[] packed = new int[sections.length * 2];
+            for (int i = 0; i < sections.length; i++) {
+                packed[i * 2] = (int) (sections[i] >>> 32);
+                packed[i * 2 + 1] = (int) sections[i];
+            }
+            aNBT.setIntArray("scanSections", packed);
+        }
+    }
+
+    /**
+     * 从NBT恢复计划进度，游标越界或为旧版按层扫描的进度时返回 null
+     */
+    public static MinerScanPlan readFromNBT(NBTTagCompound aNBT, int originX, int originY, int originZ,
+        int radius) {
+        if (!aNBT.getBoolean("scanChunkMajor")) return null;
+        long[] sections = null;
+        if (aNBT.hasKey("scanSections")) {
+            int[] packed = aNBT.getIntArray("scanSections");
+            sections = new long[packed.length / 2];
+            for (int i = 0; i < sections.length; i++) {
+                sections[i] = ((long) packed[i * 2] << 32) | (packed[i * 2 + 1] & 0xFFFFFFFFL);
+            }
+        }
+        MinerScanPlan plan = new MinerScanPlan(
+            originX,
+            originY,
+            originZ,
+            radius,
+            aNBT.hasKey("scanExcludeRadius") ? aNBT.getInteger("scanExcludeRadius") : -1,
+            sections);
+        plan.yCursor = aNBT.getInteger("scanYCursor");
+        plan.columnCursor = aNBT.getInteger("scanColumnCursor");
+        if (plan.yCursor > originY || plan.yCursor < 0 || plan.columnCursor < 0) return null;
+        if (sections == null && plan.columnCursor >= plan.chunksX() * plan.chunksZ()) return null;
+        return plan;
+    }
+}
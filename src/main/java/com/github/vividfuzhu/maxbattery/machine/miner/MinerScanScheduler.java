@@ -0,0 +1,68 @@
+package com.github.vividfuzhu.maxbattery.machine.miner;
+
+import java.util.ArrayDeque;
+
+import com.github.vividfuzhu.maxbattery.config.ModConfig;
+
+import cpw.mods.fml.common.eventhandler.SubscribeEvent;
+import cpw.mods.fml.common.gameevent.TickEvent;
+
+/**
+ * 采矿机扫描调度器 - 全服所有采矿机共享的扫描时间预算。
+ *
+ * 采矿机不再在自己的 tick 中扫描，而是登记到调度器；
+ * 每个服务器 tick 结束时，调度器以区块列为单位轮流推进各采矿机的扫描，
+ * 直到用完 {@link ModConfig#MINER_SCAN_BUDGET_NS} 纳秒预算。
+ * 未完成的采矿机排回队尾，下一 tick 继续，因此扫描开销与采矿机数量和半径无关。
+ * 正在等待异步扫描结果的采矿机本 tick 不再调度。
+ */
+public final class MinerScanScheduler {
+
+    public static final MinerScanScheduler INSTANCE = new MinerScanScheduler();
+
+    /** 等待扫描的采矿机（轮询顺序） */
+    private final ArrayDeque<MaxBatteryMiner> pending = new ArrayDeque<>();
+
+    private MinerScanScheduler() {}
+
+    /**
+     * 登记一台需要扫描的采矿机，重复登记会被忽略
+     */
+    public void request(MaxBatteryMiner miner) {
+        if (miner.scanQueued) return;
+        miner.scanQueued = true;
+        pending.addLast(miner);
+    }
+
+    /** 服务器停止时清空，避免持有已卸载世界中的机器 */
+    public void clear() {
+        for (MaxBatteryMiner miner : pending) {
+            miner.scanQueued = false;
+        }
+        pending.clear();
+    }
+
+    @SubscribeEvent
+    public void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase != TickEvent.Phase.END || pending.isEmpty()) return;
+
+        long start = System.nanoTime();
+        ArrayDeque<MaxBatteryMiner> waiting = new ArrayDeque<>();
+        while (!pending.isEmpty() && System.nanoTime() - start < ModConfig.MINER_SCAN_BUDGET_NS) {
+            MaxBatteryMiner miner = pending.pollFirst();
+            if (!miner.needsScan()) {
+                miner.scanQueued = false;
+                continue;
+            }
+            boolean progressed = miner.scanStep();
+            if (!miner.needsScan()) {
+                miner.scanQueued = false;
+            } else if (progressed) {
+                pending.addLast(miner);
+            } else {
+                waiting.addLast(miner);
+            }
+        }
+        pending.addAll(waiting);
+    }
+}
@@ -0,0 +1,97 @@
+package com.github.vividfuzhu.maxbattery.machine.miner;
+
+import java.util.Arrays;
+
+import net.minecraft.nbt.NBTTagCompound;
+
+/**
+ * 采矿机运行统计 - 用于判断采矿机是缺电、输出堵塞、在扫描还是已采空。
+ *
+ * 每项只是一次自增，开销可忽略；挖掘速率按最近 60 秒的每秒计数求和，
+ * 以世界时间为准，机器未加载期间的秒数按 0 计。全部数据随机器保存。
+ */
+final class MinerStats {
+
+    private static final int WINDOW_SECONDS = 60;
+
+    /** 最近 60 秒每秒挖掘的矿石数（环形，按 秒 % 60 索引） */
+    private final int[] minedPerSecond = new int[WINDOW_SECONDS];
+    /** minedPerSecond 最后更新到的秒数（世界时间 / 20） */
+    private long lastSecond;
+
+    long totalMined;
+    /** 上次完成的扫描在主线程上耗费的时间（纳秒） */
+    long lastScanNanos;
+    /** 进行中的扫描已累计的时间（纳秒） */
+    long currentScanNanos;
+    /** 有矿可挖但储能不足以满速挖掘的 tick 数 */
+    long energyStallTicks;
+    /** 输出槽和缓冲区都满、暂停挖掘的 tick 数 */
+    long outputStallTicks;
+    /** 放不进输出槽、溢出到缓冲区的物品数 */
+    long spilledItems;
+
+    void recordMined(long worldTime) {
+        long second = worldTime / 20;
+        advance(second);
+        minedPerSecond[(int) (second % WINDOW_SECONDS)]++;
+        totalMined++;
+    }
+
+    /** 最近一分钟挖掘的矿石数 */
+    int minedLastMinute(long worldTime) {
+        advance(worldTime / 20);
+        int sum = 0;
+        for (int count : minedPerSecond) {
+            sum += count;
+        }
+        return sum;
+    }
+
+    /** 扫描开始，重新累计耗时 */
+    void startScan() {
+        currentScanNanos = 0;
+    }
+
+    void finishScan() {
+        lastScanNanos = currentScanNanos;
+        currentScanNanos = 0;
+    }
+
+    /** 清除已滑出窗口的秒计数 */
+    private void advance(long second) {
+        if (second <= lastSecond) return;
+        if (second - lastSecond >= WINDOW_SECONDS) {
+            Arrays.fill(minedPerSecond, 0);
+        } else {
+            for (long s = lastSecond + 1; s <= second; s++) {
+                minedPerSecond[(int) (s % WINDOW_SECONDS)] = 0;
+            }
+        }
+        lastSecond = second;
+    }
+
+    void writeToNBT(NBTTagCompound aNBT, String key) {
+        NBTTagCompound tag = new NBTTagCompound();
+        tag.setIntArray("minedPerSecond", minedPerSecond);
+        tag.setLong("lastSecond", lastSecond);
+        tag.setLong("totalMined", totalMined);
+        tag.setLong("lastScanNanos", lastScanNanos);
+        tag.setLong("energyStallTicks", energyStallTicks);
+        tag.setLong("outputStallTicks", outputStallTicks);
+        tag.setLong("spilledItems", spilledItems);
+        aNBT.setTag(key, tag);
+    }
+
+    void readFromNBT(NBTTagCompound aNBT, String key) {
+        NBTTagCompound tag = aNBT.getCompoundTag(key);
+        int[] saved = tag.getIntArray("minedPerSecond");
+        if (saved.length == WINDOW_SECONDS) System.arraycopy(saved, 0, minedPerSecond, 0, WINDOW_SECONDS);
+        lastSecond = tag.getLong("lastSecond");
+        totalMined = tag.getLong("totalMined");
+        lastScanNanos = tag.getLong("lastScanNanos");
+        energyStallTicks = tag.getLong("energyStallTicks");
+        outputStallTicks = tag.getLong("outputStallTicks");
+        spilledItems = tag.getLong("spilledItems");
+    }
+}
@@ -0,0 +1,100 @@
+package com.github.vividfuzhu.maxbattery.machine.miner;
+
+import java.util.function.ToIntFunction;
+
+import net.minecraft.item.ItemStack;
+
+import com.github.vividfuzhu.maxbattery.config.ModConfig;
+
+import cpw.mods.fml.common.eventhandler.SubscribeEvent;
+import cpw.mods.fml.common.gameevent.TickEvent;
+
+/**
+ * 采矿机世界修改预算 - 全服所有采矿机每 tick 共享的破坏方块 / 放入物品次数上限。
+ *
+ * 每台采矿机每 tick 最多取得 {@link ModConfig#MINER_BREAK_BUDGET} 与 {@link ModConfig#MINER_INSERT_BUDGET}
+ * 按上一 tick 活跃采矿机数均分的份额，全服合计不超过总预算。超出预算的进度保留在采矿机中作为积压，
+ * 下一 tick 继续，不会丢失；本 tick 放不下的掉落物留在缓冲区中。因此即使有加速火把，每 tick 的挖掘开销也有硬上限。
+ * 物品放入只在确实放入了物品时计数，输出堵塞的采矿机不会占用其他采矿机的份额。
+ * 所有方法只在服务端主线程调用。
+ */
+public final class MinerWorkBudget {
+
+    public static final MinerWorkBudget INSTANCE = new MinerWorkBudget();
+
+    /** 单台采矿机在当前 tick 已取得的份额 */
+    public static final class Share {
+
+        private long tick = -1;
+        private int breaks;
+        private int inserts;
+    }
+
+    private long tick;
+    private int breaksLeft = ModConfig.MINER_BREAK_BUDGET;
+    private int insertsLeft = ModConfig.MINER_INSERT_BUDGET;
+    private int activeThisTick;
+    private int activeLastTick = 1;
+
+    private MinerWorkBudget() {}
+
+    @SubscribeEvent
+    public void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase != TickEvent.Phase.START) return;
+        tick++;
+        breaksLeft = ModConfig.MINER_BREAK_BUDGET;
+        insertsLeft = ModConfig.MINER_INSERT_BUDGET;
+        activeLastTick = Math.max(1, activeThisTick);
+        activeThisTick = 0;
+    }
+
+    /**
+     * 申请破坏方块的次数
+     *
+     * @param share  申请方的份额记录
+     * @param wanted 希望破坏的方块数
+     * @return 实际允许的次数，可能为 0
+     */
+    public int acquireBreaks(Share share, int wanted) {
+        if (wanted <= 0) return 0;
+        touch(share);
+        int fairShare = Math.max(1, ModConfig.MINER_BREAK_BUDGET / activeLastTick);
+        int granted = Math.min(wanted, Math.min(fairShare - share.breaks, breaksLeft));
+        if (granted <= 0) return 0;
+        share.breaks += granted;
+        breaksLeft -= granted;
+        return granted;
+    }
+
+    /** 本 tick 是否还能放入物品（一次放入为一组物品放入输出槽或相邻容器） */
+    public boolean canInsert(Share share) {
+        touch(share);
+        int fairShare = Math.max(1, ModConfig.MINER_INSERT_BUDGET / activeLastTick);
+        return insertsLeft > 0 && share.inserts < fairShare;
+    }
+
+    /** 记录一次实际发生的放入 */
+    public void chargeInsert(Share share) {
+        share.inserts++;
+        insertsLeft--;
+    }
+
+    /** 包装放入函数：份额用完时返回 0，剩余物品留在原缓冲区；只有实际放入物品时才计数 */
+    public ToIntFunction<ItemStack> limit(Share share, ToIntFunction<ItemStack> sink) {
+        return stack -> {
+            if (!canInsert(share)) return 0;
+            int moved = sink.applyAsInt(stack);
+            if (moved > 0) chargeInsert(share);
+            return moved;
+        };
+    }
+
+    /** 份额记录切换到当前 tick，并计入活跃采矿机数 */
+    private void touch(Share share) {
+        if (share.tick == tick) return;
+        share.tick = tick;
+        share.breaks = 0;
+        share.inserts = 0;
+        activeThisTick++;
+    }
+}
@@ -0,0 +1,75 @@
+package com.github.vividfuzhu.maxbattery.machine.miner;
+
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.world.IWorldAccess;
+import net.minecraft.world.World;
+
+/**
+ * 世界方块变化监听 - 方块被设置或元数据变化时修补 {@link OreIndex} 中对应区块段，
+ * 并通过 {@link MinerAreaRegistry} 通知工作区域覆盖该区块段的采矿机。
+ *
+ * World#setBlock / setBlockMetadataWithNotify 带同步标记时会调用 markBlockForUpdate，
+ * 高度图变化时会调用 markBlockRangeForRenderUpdate，其余回调与索引无关。
+ */
+public class MinerWorldAccess implements IWorldAccess {
+
+    private final World world;
+
+    public MinerWorldAccess(World world) {
+        this.world = world;
+    }
+
+    @Override
+    public void markBlockForUpdate(int x, int y, int z) {
+        OreIndex.INSTANCE.onBlockChanged(world, x, y, z);
+        MinerAreaRegistry.INSTANCE.onBlockChanged(world, x, y, z);
+    }
+
+    @Override
+    public void markBlockForRenderUpdate(int x, int y, int z) {}
+
+    @Override
+    public void markBlockRangeForRenderUpdate(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        for (int chunkX = minX >> 4; chunkX <= maxX >> 4; chunkX++) {
+            for (int chunkZ = minZ >> 4; chunkZ <= maxZ >> 4; chunkZ++) {
+                for (int sectionY = Math.max(0, minY) >> 4; sectionY <= Math.min(255, maxY) >> 4; sectionY++) {
+                    OreIndex.INSTANCE.invalidate(world, chunkX << 4, sectionY << 4, chunkZ << 4);
+                    MinerAreaRegistry.INSTANCE.onBlockChanged(world, chunkX << 4, sectionY << 4, chunkZ << 4);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void playSound(String soundName, double x, double y, double z, float volume, float pitch) {}
+
+    @Override
+    public void playSoundToNearExcept(EntityPlayer player, String soundName, double x, double y, double z,
+        float volume, float pitch) {}
+
+    @Override
+    public void spawnParticle(String particleType, double x, double y, double z, double velX, double velY,
+        double velZ) {}
+
+    @Override
+    public void onEntityCreate(Entity entity) {}
+
+    @Override
+    public void onEntityDestroy(Entity entity) {}
+
+    @Override
+    public void playRecord(String recordName, int x, int y, int z) {}
+
+    @Override
+    public void broadcastSound(int soundId, int x, int y, int z, int data) {}
+
+    @Override
+    public void playAuxSFX(EntityPlayer player, int sfxType, int x, int y, int z, int data) {}
+
+    @Override
+    public void destroyBlockPartially(int breakerId, int x, int y, int z, int progress) {}
+
+    @Override
+    public void onStaticEntitiesChanged() {}
+}
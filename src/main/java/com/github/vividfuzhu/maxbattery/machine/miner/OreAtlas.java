@@ -0,0 +1,347 @@
+package com.github.vividfuzhu.maxbattery.machine.miner;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+import net.minecraft.nbt.CompressedStreamTools;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.world.ChunkCoordIntPair;
+import net.minecraft.world.World;
+import net.minecraft.world.WorldServer;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraftforge.common.DimensionManager;
+import net.minecraftforge.event.world.ChunkEvent;
+import net.minecraftforge.event.world.WorldEvent;
+
+import com.github.vividfuzhu.maxbattery.MaxBattery;
+import com.github.vividfuzhu.maxbattery.config.ModConfig;
+
+import cpw.mods.fml.common.eventhandler.SubscribeEvent;
+import cpw.mods.fml.common.gameevent.TickEvent;
+
+/**
+ * 离线矿石图集 - 按区域保存的区块段矿石快照，由 {@link OreAtlasBuilder} 从区域文件生成。
+ *
+ * 用途：
+ * <ul>
+ *   <li>采矿机扫描未加载的区块时直接取图集条目，不为扫描加载区块（见 {@link ModConfig#MINER_ATLAS_SEED}）；
+ *       图集是快照，挖掘时仍会重新校验方块</li>
+ *   <li>管理员用 /oreatlas top 查找矿石最多的区块</li>
+ * </ul>
+ * 图集按区域保存在存档目录 maxbattery/oreatlas/DIM&lt;id&gt;/r.&lt;x&gt;.&lt;z&gt;.dat，首次访问某个区域时才读取该区域。
+ * 每个区域记录生成时区域文件的修改时间，读取时区域文件已被改写则整个区域作废；
+ * 本次运行中加载过的区块（包括采矿机挖掘时加载的）从图集中移除，不会再按旧快照入队。
+ * 生成在 ForkJoinPool 中进行，结果通过服务器 tick 交回主线程。
+ */
+public final class OreAtlas {
+
+    public static final OreAtlas INSTANCE = new OreAtlas();
+
+    private static final int VERSION = 2;
+
+    /** 一个区域（32×32 区块）的图集 */
+    static final class Region {
+
+        static final Region EMPTY = new Region(0L, Collections.emptyMap());
+
+        /** 生成时区域文件的修改时间 */
+        final long stamp;
+        /** 区块键 → 16 个区块段的条目，null 表示无矿石 */
+        final Map<Long, int[][]> chunks;
+
+        Region(long stamp, Map<Long, int[][]> chunks) {
+            this.stamp = stamp;
+            this.chunks = chunks;
+        }
+    }
+
+    /** 维度ID → (区域键 → 区域图集)；只在主线程访问，没有图集的区域映射为 {@link Region#EMPTY} */
+    private final Map<Integer, Map<Long, Region>> dimensions = new HashMap<>();
+
+    /** 正在生成图集的维度 */
+    private final Map<Integer, Boolean> building = new ConcurrentHashMap<>();
+
+    /** 工作线程交回主线程执行的任务 */
+    private final ConcurrentLinkedQueue<Runnable> mainThreadTasks = new ConcurrentLinkedQueue<>();
+
+    /** 服务器停止时递增，丢弃上一个存档仍在后台进行的任务结果 */
+    private volatile int generation;
+
+    private OreAtlas() {}
+
+    /**
+     * 获取图集中区块段的候选矿石条目
+     *
+     * @return 条目数组；图集中没有该区块或快照已过期时返回 null
+     */
+    public int[] get(World world, int chunkX, int sectionY, int chunkZ) {
+        if (!(world instanceof WorldServer)) return null;
+        int[][] sections = regionOf((WorldServer) world, chunkX >> 5, chunkZ >> 5).chunks
+            .get(ChunkCoordIntPair.chunkXZ2Int(chunkX, chunkZ));
+        if (sections == null) return null;
+        int[] entries = sections[sectionY];
+        return entries == null ? OreSectionScanner.NO_ORES : entries;
+    }
+
+    /**
+     * 在后台生成维度的图集并保存
+     *
+     * @param onDone 在主线程接收结果：收录的区块数，失败时为 -1
+     * @return false表示该维度正在生成中
+     */
+    public boolean build(WorldServer world, Consumer<Integer> onDone) {
+        int dim = world.provider.dimensionId;
+        if (building.putIfAbsent(dim, Boolean.TRUE) != null) return false;
+
+        // 工作线程只读分类表，先在主线程填满
+        OreClassifier.classifyAll();
+        File regionDir = regionDir(world);
+        File dir = atlasDir(dim);
+        int buildGeneration = generation;
+        runInPool(() -> {
+            int count = -1;
+            try {
+                Map<Long, Region> regions = OreAtlasBuilder.build(regionDir);
+                if (dir != null) save(dir, regions);
+                count = 0;
+                for (Region region : regions.values()) {
+                    count += region.chunks.size();
+                }
+            } catch (IOException | RuntimeException e) {
+                MaxBattery.LOG.error("Ore atlas: failed to build atlas for dimension {}", dim, e);
+            }
+            int result = count;
+            mainThreadTasks.add(() -> {
+                building.remove(dim);
+                if (buildGeneration != generation) return;
+                // 丢弃已读取的区域，之后按需读取新文件（同时剔除当前已加载的区块）
+                dimensions.remove(dim);
+                onDone.accept(result);
+            });
+        });
+        return true;
+    }
+
+    /**
+     * 在后台读取维度的全部区域图集，找出矿石最多的区块；已过期的区域不计入
+     *
+     * @param onDone 在主线程接收 {区块X, 区块Z, 矿石数} 数组，按矿石数降序
+     */
+    public void richestChunks(WorldServer world, int count, Consumer<List<int[]>> onDone) {
+        File regionDir = regionDir(world);
+        File dir = atlasDir(world.provider.dimensionId);
+        int taskGeneration = generation;
+        runInPool(() -> {
+            List<int[]> result = new ArrayList<>();
+            File[] files = dir == null ? null : dir.listFiles((d, name) -> name.endsWith(".dat"));
+            if (files != null) {
+                for (File file : files) {
+                    Region region = readValid(file, regionDir);
+                    for (Map.Entry<Long, int[][]> entry : region.chunks.entrySet()) {
+                        int ores = 0;
+                        for (int[] entries : entry.getValue()) {
+                            if (entries != null) ores += entries.length;
+                        }
+                        if (ores == 0) continue;
+                        long key = entry.getKey();
+                        result.add(new int[] { (int) key, (int) (key >> 32), ores });
+                    }
+                }
+            }
+            result.sort((a, b) -> Integer.compare(b[2], a[2]));
+            List<int[]> top = result.size() > count ? result.subList(0, count) : result;
+            mainThreadTasks.add(() -> {
+                if (taskGeneration == generation) onDone.accept(top);
+            });
+        });
+    }
+
+    /** 维度是否有图集文件 */
+    public boolean has(int dim) {
+        File dir = atlasDir(dim);
+        String[] files = dir == null ? null : dir.list((d, name) -> name.endsWith(".dat"));
+        return files != null && files.length > 0;
+    }
+
+    /** 删除维度的图集 */
+    public void delete(int dim) {
+        dimensions.remove(dim);
+        File dir = atlasDir(dim);
+        if (dir != null) deleteFiles(dir);
+    }
+
+    public void clear() {
+        generation++;
+        dimensions.clear();
+        mainThreadTasks.clear();
+    }
+
+    @SubscribeEvent
+    public void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase != TickEvent.Phase.END) return;
+        Runnable task;
+        while ((task = mainThreadTasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    /** 区块加载后可能被修改，快照不再可信 */
+    @SubscribeEvent
+    public void onChunkLoad(ChunkEvent.Load event) {
+        if (event.world.isRemote) return;
+        Map<Long, Region> regions = dimensions.get(event.world.provider.dimensionId);
+        if (regions == null) return;
+        Chunk chunk = event.getChunk();
+        Region region = regions.get(ChunkCoordIntPair.chunkXZ2Int(chunk.xPosition >> 5, chunk.zPosition >> 5));
+        if (region != null) region.chunks.remove(ChunkCoordIntPair.chunkXZ2Int(chunk.xPosition, chunk.zPosition));
+    }
+
+    @SubscribeEvent
+    public void onWorldUnload(WorldEvent.Unload event) {
+        if (event.world.isRemote) return;
+        dimensions.remove(event.world.provider.dimensionId);
+    }
+
+    /** 区域的图集，首次访问时读取该区域的文件并剔除过期的部分 */
+    private Region regionOf(WorldServer world, int regionX, int regionZ) {
+        int dim = world.provider.dimensionId;
+        Map<Long, Region> regions = dimensions.computeIfAbsent(dim, d -> new HashMap<>());
+        long key = ChunkCoordIntPair.chunkXZ2Int(regionX, regionZ);
+        Region region = regions.get(key);
+        if (region != null) return region;
+
+        region = Region.EMPTY;
+        File dir = atlasDir(dim);
+        if (dir != null) {
+            File file = new File(dir, regionFileName(regionX, regionZ, ".dat"));
+            if (file.isFile()) {
+                region = readValid(file, regionDir(world));
+                if (region == Region.EMPTY && !file.delete()) {
+                    MaxBattery.LOG.warn("Ore atlas: failed to delete stale {}", file);
+                }
+            }
+        }
+        // 本次运行中已加载过的区块可能已被修改
+        region.chunks.keySet()
+            .removeIf(
+                chunk -> world.getChunkProvider()
+                    .chunkExists((int) (long) chunk, (int) (chunk >> 32)));
+        regions.put(key, region);
+        return region;
+    }
+
+    /** 读取区域图集；文件损坏或区域文件在生成后被改写时返回 {@link Region#EMPTY} */
+    private static Region readValid(File file, File regionDir) {
+        Region region;
+        try {
+            region = read(file);
+        } catch (IOException | RuntimeException e) {
+            MaxBattery.LOG.warn("Ore atlas: failed to read {}", file, e);
+            return Region.EMPTY;
+        }
+        String name = file.getName();
+        File source = new File(regionDir, name.substring(0, name.length() - ".dat".length()) + ".mca");
+        return source.lastModified() == region.stamp ? region : Region.EMPTY;
+    }
+
+    private static void runInPool(Runnable task) {
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, ModConfig.MINER_ATLAS_THREADS));
+        pool.execute(task);
+        pool.shutdown(); // 任务完成后线程自动结束
+    }
+
+    private static File regionDir(WorldServer world) {
+        return new File(world.getChunkSaveLocation(), "region");
+    }
+
+    private static File atlasDir(int dim) {
+        File root = DimensionManager.getCurrentSaveRootDirectory();
+        if (root == null) return null;
+        return new File(root, "maxbattery/oreatlas/DIM" + dim);
+    }
+
+    private static String regionFileName(int regionX, int regionZ, String extension) {
+        return "r." + regionX + "." + regionZ + extension;
+    }
+
+    private static void deleteFiles(File dir) {
+        File[] files = dir.listFiles();
+        if (files == null) return;
+        for (File file : files) {
+            if (!file.delete()) MaxBattery.LOG.warn("Ore atlas: failed to delete {}", file);
+        }
+    }
+
+    /** 清空旧图集后每个有区块的区域写一个文件 */
+    private static void save(File dir, Map<Long, Region> regions) throws IOException {
+        if (!dir.isDirectory() && !dir.mkdirs()) throw new IOException("Cannot create " + dir);
+        deleteFiles(dir);
+        for (Map.Entry<Long, Region> entry : regions.entrySet()) {
+            Region region = entry.getValue();
+            if (region.chunks.isEmpty()) continue;
+            long key = entry.getKey();
+            write(new File(dir, regionFileName((int) key, (int) (key >> 32), ".dat")), region);
+        }
+    }
+
+    /** 每个区块一个复合标签：x、z 和有矿石的区块段 "0"-"15" */
+    private static void write(File file, Region region) throws IOException {
+        NBTTagList list = new NBTTagList();
+        for (Map.Entry<Long, int[][]> entry : region.chunks.entrySet()) {
+            long key = entry.getKey();
+            NBTTagCompound chunk = new NBTTagCompound();
+            chunk.setInteger("x", (int) key);
+            chunk.setInteger("z", (int) (key >> 32));
+            int[][] sections = entry.getValue();
+            for (int sy = 0; sy < 16; sy++) {
+                if (sections[sy] != null) chunk.setIntArray(Integer.toString(sy), sections[sy]);
+            }
+            list.appendTag(chunk);
+        }
+        NBTTagCompound root = new NBTTagCompound();
+        root.setInteger("version", VERSION);
+        root.setLong("stamp", region.stamp);
+        root.setTag("chunks", list);
+
+        File temp = new File(file.getParentFile(), file.getName() + ".tmp");
+        try (OutputStream out = new FileOutputStream(temp)) {
+            CompressedStreamTools.writeCompressed(root, out);
+        }
+        if (file.exists() && !file.delete()) throw new IOException("Cannot replace " + file);
+        if (!temp.renameTo(file)) throw new IOException("Cannot rename " + temp);
+    }
+
+    private static Region read(File file) throws IOException {
+        NBTTagCompound root;
+        try (InputStream in = new FileInputStream(file)) {
+            root = CompressedStreamTools.readCompressed(in);
+        }
+        if (root.getInteger("version") != VERSION) return Region.EMPTY;
+        NBTTagList list = root.getTagList("chunks", 10);
+        HashMap<Long, int[][]> chunks = new HashMap<>(list.tagCount() * 2);
+        for (int i = 0; i < list.tagCount(); i++) {
+            NBTTagCompound chunk = list.getCompoundTagAt(i);
+            int[][] sections = new int[16][];
+            for (int sy = 0; sy < 16; sy++) {
+                String key = Integer.toString(sy);
+                if (chunk.hasKey(key)) sections[sy] = chunk.getIntArray(key);
+            }
+            chunks.put(ChunkCoordIntPair.chunkXZ2Int(chunk.getInteger("x"), chunk.getInteger("z")), sections);
+        }
+        return new Region(root.getLong("stamp"), chunks);
+    }
+}
@@ -0,0 +1,185 @@
+package com.github.vividfuzhu.maxbattery.machine.miner;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import net.minecraft.nbt.CompressedStreamTools;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.world.ChunkCoordIntPair;
+
+import com.github.vividfuzhu.maxbattery.MaxBattery;
+
+/**
+ * 离线矿石图集生成 - 直接读取维度的 .mca 区域文件，不加载任何区块。
+ *
+ * 区域文件以内存映射方式只读打开，按区域文件并行解压区块（调用方提供线程池），
+ * 用与 {@link OreSectionScanner} 相同的规则分类矿石：
+ * <ul>
+ *   <li>只收录地形已生成（TerrainPopulated）的区块，与 {@link OreIndex#get} 一致</li>
+ *   <li>分类只读 {@link OreClassifier#peek}，调用前须在主线程执行 {@link OreClassifier#classifyAll}</li>
+ *   <li>带有非自然生成标记（TileEntityOres 的 "n" 为 false）的 GT 矿石不收录</li>
+ * </ul>
+ * 结果按区域分组：区域键 → {@link OreAtlas.Region}，其中为 区块键 → 16 个区块段的候选矿石条目
+ * （格式见 {@link OreSectionScanner}，null 表示无矿石），并记录读取前区域文件的修改时间。
+ */
+final class OreAtlasBuilder {
+
+    private static final int SECTOR_BYTES = 4096;
+
+    private OreAtlasBuilder() {}
+
+    /** 读取区域目录下的所有区域文件，在当前线程池中并行执行 */
+    static Map<Long, OreAtlas.Region> build(File regionDir) {
+        ConcurrentHashMap<Long, OreAtlas.Region> regions = new ConcurrentHashMap<>();
+        File[] files = regionDir.listFiles((dir, name) -> name.startsWith("r.") && name.endsWith(".mca"));
+        if (files == null) return regions;
+        Arrays.stream(files)
+            .parallel()
+            .forEach(file -> {
+                String[] parts = file.getName()
+                    .split("\\.");
+                if (parts.length != 4) return;
+                int regionX;
+                int regionZ;
+                try {
+                    regionX = Integer.parseInt(parts[1]);
+                    regionZ = Integer.parseInt(parts[2]);
+                } catch (NumberFormatException e) {
+                    return;
+                }
+                // 先取修改时间：读取期间区域文件被改写时，图集会在首次使用时作废
+                long stamp = file.lastModified();
+                Map<Long, int[][]> chunks = new HashMap<>();
+                readRegion(file, chunks);
+                if (!chunks.isEmpty()) {
+                    regions.put(ChunkCoordIntPair.chunkXZ2Int(regionX, regionZ), new OreAtlas.Region(stamp, chunks));
+                }
+            });
+        return regions;
+    }
+
+    private static void readRegion(File file, Map<Long, int[][]> out) {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < SECTOR_BYTES * 2) return; // 没有完整的区块位置表
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int failed = 0;
+            for (int i = 0; i < 1024; i++) {
+                int location = buffer.getInt(i << 2);
+                if (location == 0) continue; // 区块未生成
+                try {
+                    NBTTagCompound root = readChunk(buffer, (long) (location >>> 8) * SECTOR_BYTES, size);
+                    if (root != null) readLevel(root.getCompoundTag("Level"), out);
+                } catch (IOException | RuntimeException e) {
+                    failed++;
+                }
+            }
+            if (failed > 0) MaxBattery.LOG.warn("Ore atlas: skipped {} unreadable chunks in {}", failed, file);
+        } catch (IOException e) {
+            MaxBattery.LOG.warn("Ore atlas: failed to read region file {}", file, e);
+        }
+    }
+
+    /** 读取并解压一个区块：4 字节长度、1 字节压缩类型（1=gzip，2=zlib）、压缩数据 */
+    private static NBTTagCompound readChunk(ByteBuffer buffer, long offset, long size) throws IOException {
+        if (offset + 5 > size) return null;
+        int length = buffer.getInt((int) offset);
+        if (length <= 1 || offset + 4 + length > size) return null;
+        byte type = buffer.get((int) offset + 4);
+        byte[] data = new byte[length - 1];
+        ByteBuffer slice = buffer.duplicate();
+        slice.position((int) offset + 5);
+        slice.get(data);
+
+        InputStream raw = new ByteArrayInputStream(data);
+        InputStream in;
+        if (type == 1) {
+            in = new GZIPInputStream(raw);
+        } else if (type == 2) {
+            in = new InflaterInputStream(raw);
+        } else {
+            return null;
+        }
+        try (DataInputStream stream = new DataInputStream(new BufferedInputStream(in))) {
+            return CompressedStreamTools.read(stream);
+        }
+    }
+
+    private static void readLevel(NBTTagCompound level, Map<Long, int[][]> out) {
+        if (!level.getBoolean("TerrainPopulated")) return;
+        int chunkX = level.getInteger("xPos");
+        int chunkZ = level.getInteger("zPos");
+
+        // 非自然生成的 GT 矿石位置（区块内索引 y << 8 | z << 4 | x）
+        BitSet placed = null;
+        NBTTagList tileEntities = level.getTagList("TileEntities", 10);
+        for (int i = 0; i < tileEntities.tagCount(); i++) {
+            NBTTagCompound te = tileEntities.getCompoundTagAt(i);
+            if (!te.hasKey("n") || te.getBoolean("n")) continue;
+            int y = te.getInteger("y");
+            if (y < 0 || y > 255) continue;
+            if (placed == null) placed = new BitSet(1 << 16);
+            placed.set((y << 8) | ((te.getInteger("z") & 15) << 4) | (te.getInteger("x") & 15));
+        }
+
+        int[][] sections = new int[16][];
+        NBTTagList list = level.getTagList("Sections", 10);
+        for (int i = 0; i < list.tagCount(); i++) {
+            NBTTagCompound section = list.getCompoundTagAt(i);
+            int sectionY = section.getByte("Y");
+            if (sectionY < 0 || sectionY > 15) continue;
+            byte[] blocks = section.getByteArray("Blocks");
+            byte[] data = section.getByteArray("Data");
+            if (blocks.length != 4096 || data.length != 2048) continue;
+            byte[] add = section.hasKey("Add") ? section.getByteArray("Add") : null;
+            if (add != null && add.length != 2048) add = null;
+            sections[sectionY] = scanSection(blocks, add, data, sectionY, placed);
+        }
+        out.put(ChunkCoordIntPair.chunkXZ2Int(chunkX, chunkZ), sections);
+    }
+
+    /** 与 {@link OreSectionScanner#scanSection} 相同的遍历，数据来自存档中的数组 */
+    private static int[] scanSection(byte[] blocks, byte[] add, byte[] data, int sectionY, BitSet placed) {
+        int[] found = null;
+        int count = 0;
+        for (int index = 0; index < 4096; index++) {
+            int id = blocks[index] & 0xFF;
+            if (add != null) id |= nibble(add, index) << 8;
+            if (id == 0) continue; // 空气
+
+            int meta = nibble(data, index);
+            byte type = OreClassifier.peek(id, meta);
+            if (type != OreClassifier.GT_ORE && type != OreClassifier.DICT_ORE) continue;
+            if (type == OreClassifier.GT_ORE && placed != null && placed.get((sectionY << 12) | index)) continue;
+
+            if (found == null) {
+                found = new int[16];
+            } else if (count == found.length) {
+                found = Arrays.copyOf(found, count << 1);
+            }
+            found[count++] = OreSectionScanner.entry(index, id, meta);
+        }
+        return count == 0 ? null : Arrays.copyOf(found, count);
+    }
+
+    private static int nibble(byte[] array, int index) {
+        byte b = array[index >> 1];
+        return (index & 1) == 0 ? b & 0xF : (b >> 4) & 0xF;
+    }
+}
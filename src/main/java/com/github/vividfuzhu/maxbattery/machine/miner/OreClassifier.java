@@ -0,0 +1,93 @@
+package com.github.vividfuzhu.maxbattery.machine.miner;
+
+import java.util.Arrays;
+
+import net.minecraft.block.Block;
+import net.minecraftforge.oredict.OreDictionary;
+
+import cpw.mods.fml.common.eventhandler.SubscribeEvent;
+import gregtech.api.util.GTUtility;
+import gregtech.common.blocks.BlockOresAbstract;
+
+/**
+ * 矿石分类表 - 按 (方块ID × 16 + 元数据) 缓存方块是否为矿石。
+ *
+ * GTUtility#isOre 要经过矿物词典查询，而结果只取决于方块ID和元数据，
+ * 因此每种方块只查一次，之后扫描、挖掘、异步扫描都只读一个字节。
+ * 表项惰性填充，矿物词典有新注册时整表失效。
+ * 只有主线程写入；工作线程通过 {@link #peek} 读取，读到未分类时交回主线程。
+ */
+public final class OreClassifier {
+
+    public static final OreClassifier INSTANCE = new OreClassifier();
+
+    public static final byte UNKNOWN = 0;
+    /** GT 矿石方块（需检查 TileEntityOres#mNatural） */
+    public static final byte GT_ORE = 1;
+    /** 矿物词典中的矿石 */
+    public static final byte DICT_ORE = 2;
+    public static final byte NOT_ORE = 3;
+
+    private static final byte[] TABLE = new byte[4096 << 4];
+
+    /** 表中是否已有分类结果，启动期大量矿物词典注册时跳过无意义的清表 */
+    private static boolean populated;
+
+    private OreClassifier() {}
+
+    /** 分类方块，未缓存时在主线程查询并写入表 */
+    public static byte classify(int blockId, int meta) {
+        int key = (blockId << 4) | meta;
+        byte type = TABLE[key];
+        if (type == UNKNOWN) {
+            Block block = Block.getBlockById(blockId);
+            if (block instanceof BlockOresAbstract) {
+                type = GT_ORE;
+            } else if (GTUtility.isOre(block, meta)) {
+                type = DICT_ORE;
+            } else {
+                type = NOT_ORE;
+            }
+            TABLE[key] = type;
+            populated = true;
+        }
+        return type;
+    }
+
+    public static byte classify(Block block, int meta) {
+        return classify(Block.getIdFromBlock(block), meta);
+    }
+
+    public static boolean isOre(int blockId, int meta) {
+        return classify(blockId, meta) != NOT_ORE;
+    }
+
+    /** 在主线程一次性分类所有已注册方块的全部元数据，之后工作线程可完全依赖 {@link #peek} */
+    static void classifyAll() {
+        for (Object object : Block.blockRegistry) {
+            int blockId = Block.getIdFromBlock((Block) object);
+            if (blockId <= 0 || blockId >= 4096) continue;
+            for (int meta = 0; meta < 16; meta++) {
+                classify(blockId, meta);
+            }
+        }
+    }
+
+    /** 只读缓存，不做查询，可在工作线程调用 */
+    static byte peek(int blockId, int meta) {
+        return TABLE[(blockId << 4) | meta];
+    }
+
+    /** 矿物词典注册变化时整表失效，已缓存的区块段扫描结果一并丢弃 */
+    public static void invalidate() {
+        if (!populated) return;
+        populated = false;
+        Arrays.fill(TABLE, UNKNOWN);
+        OreIndex.INSTANCE.clear();
+    }
+
+    @SubscribeEvent
+    public void onOreRegister(OreDictionary.OreRegisterEvent event) {
+        invalidate();
+    }
+}
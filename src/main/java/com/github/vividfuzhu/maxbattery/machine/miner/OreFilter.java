@@ -0,0 +1,124 @@
+package com.github.vividfuzhu.maxbattery.machine.miner;
+
+import java.util.BitSet;
+
+import net.minecraft.block.Block;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NBTTagCompound;
+
+import gregtech.common.blocks.BlockOresAbstract;
+
+/**
+ * 采矿机矿石过滤器 - 白名单 / 黑名单，编译为位图后在扫描时直接查表。
+ *
+ * 两类条目：
+ * <ul>
+ *   <li>普通矿石（矿物词典）：按 (方块ID × 16 + 元数据) 记录，与 {@link OreClassifier} 使用同一索引</li>
+ *   <li>GT 矿石：方块ID相同、材料存于 TileEntityOres#mMetaData，按材料ID（mMetaData % 1000）记录，
+ *       同一材料的各种石头类型和贫瘠矿石一并生效</li>
+ * </ul>
+ * 被过滤的矿石不会进入矿石队列，也不会被破坏。
+ */
+public final class OreFilter {
+
+    public static final int MODE_DISABLED = 0;
+    public static final int MODE_WHITELIST = 1;
+    public static final int MODE_BLACKLIST = 2;
+
+    /** GT 矿石 mMetaData 中材料ID的取模基数 */
+    private static final int GT_MATERIAL_RANGE = 1000;
+
+    private final BitSet blocks = new BitSet(4096 << 4);
+    private final BitSet gtMaterials = new BitSet(GT_MATERIAL_RANGE);
+    private int mode = MODE_DISABLED;
+
+    public int getMode() {
+        return mode;
+    }
+
+    /** 切换到下一个模式：关闭 → 白名单 → 黑名单 → 关闭 */
+    public int cycleMode() {
+        mode = (mode + 1) % 3;
+        return mode;
+    }
+
+    public boolean isActive() {
+        return mode != MODE_DISABLED;
+    }
+
+    /** 是否允许挖掘 other 允许的所有矿石（本过滤器关闭，或两者的模式和条目相同） */
+    public boolean coversAllOf(OreFilter other) {
+        if (mode == MODE_DISABLED) return true;
+        return mode == other.mode && blocks.equals(other.blocks) && gtMaterials.equals(other.gtMaterials);
+    }
+
+    /** 普通矿石是否允许挖掘（GT 矿石方块需用 {@link #allowsGtOre} 按材料判断） */
+    public boolean allowsBlock(int blockId, int meta) {
+        if (mode == MODE_DISABLED) return true;
+        return blocks.get((blockId << 4) | meta) == (mode == MODE_WHITELIST);
+    }
+
+    /** GT 矿石是否允许挖掘 */
+    public boolean allowsGtOre(int metaData) {
+        if (mode == MODE_DISABLED) return true;
+        return gtMaterials.get(Math.floorMod(metaData, GT_MATERIAL_RANGE)) == (mode == MODE_WHITELIST);
+    }
+
+    /**
+     * 按手持的矿石物品切换过滤条目
+     *
+     * @return 切换后该条目是否在列表中；物品不是矿石方块时返回 null
+     */
+    public Boolean toggle(ItemStack stack) {
+        if (!canFilter(stack)) return null;
+        Block block = Block.getBlockFromItem(stack.getItem());
+        if (block instanceof BlockOresAbstract) {
+            int material = Math.floorMod(stack.getItemDamage(), GT_MATERIAL_RANGE);
+            gtMaterials.flip(material);
+            return gtMaterials.get(material);
+        }
+        int key = (Block.getIdFromBlock(block) << 4) | (stack.getItemDamage() & 15);
+        blocks.flip(key);
+        return blocks.get(key);
+    }
+
+    /** 物品是否为可加入过滤列表的矿石（GT 矿石或矿物词典矿石） */
+    public static boolean canFilter(ItemStack stack) {
+        if (stack == null) return false;
+        Block block = Block.getBlockFromItem(stack.getItem());
+        if (block == null) return false;
+        if (block instanceof BlockOresAbstract) return true;
+        return OreClassifier.classify(block, stack.getItemDamage() & 15) == OreClassifier.DICT_ORE;
+    }
+
+    public boolean isEmpty() {
+        return mode == MODE_DISABLED && blocks.isEmpty() && gtMaterials.isEmpty();
+    }
+
+    public void writeToNBT(NBTTagCompound aNBT) {
+        aNBT.setByte("oreFilterMode", (byte) mode);
+        aNBT.setIntArray("oreFilterBlocks", toArray(blocks));
+        aNBT.setIntArray("oreFilterGt", toArray(gtMaterials));
+    }
+
+    public void readFromNBT(NBTTagCompound aNBT) {
+        mode = Math.floorMod(aNBT.getByte("oreFilterMode"), 3);
+        blocks.clear();
+        for (int key : aNBT.getIntArray("oreFilterBlocks")) {
+            if (key >= 0 && key < 4096 << 4) blocks.set(key);
+        }
+        gtMaterials.clear();
+        for (int material : aNBT.getIntArray("oreFilterGt")) {
+            if (material >= 0 && material < GT_MATERIAL_RANGE) gtMaterials.set(material);
+        }
+    }
+
+    private static int[] toArray(BitSet bits) {
+        int[] out = new int[bits.cardinality()];
+        int i = 0;
+        for (int bit = bits.nextSetBit(0); bit >= 0; bit = bits.nextSetBit(bit + 1)) {
+            out[i++] = bit;
+        }
+        return out;
+    }
+}
@@ -0,0 +1,179 @@
+package com.github.vividfuzhu.maxbattery.machine.miner;
+
+import java.util.HashMap;
+
+import net.minecraft.block.Block;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+import net.minecraftforge.event.world.ChunkEvent;
+import net.minecraftforge.event.world.WorldEvent;
+
+import cpw.mods.fml.common.eventhandler.SubscribeEvent;
+
+/**
+ * 世界级矿石索引 - 按区块段缓存扫描结果，供同一维度内所有采矿机共享。
+ *
+ * 第一台采矿机扫描某个 16³ 区块段时写入索引，工作区域重叠的其它采矿机直接复用。
+ * 单个方块变化（通过 {@link MinerWorldAccess} 监听）时只重新分类该方块并修补条目，
+ * 这样采矿机边扫描边挖掘时，同一区块段不会因为刚挖掉的矿石而被整段重扫。
+ * 索引条目在以下情况整段失效：
+ * <ul>
+ *   <li>区块段内有范围性变化（高度图更新等）</li>
+ *   <li>区块卸载 / 世界卸载</li>
+ * </ul>
+ * 异步模式下区块段由 {@link AsyncSectionScanner} 在工作线程中分类，
+ * 任务进行期间区块段若被修改，结果会被丢弃并重新提交。
+ * 所有方法只在服务端主线程调用。
+ */
+public final class OreIndex {
+
+    public static final OreIndex INSTANCE = new OreIndex();
+
+    /** 维度ID → (区块段键 → 候选矿石条目，格式见 {@link OreSectionScanner}) */
+    private final HashMap<Integer, HashMap<Long, int[]>> dimensions = new HashMap<>();
+
+    /** 维度ID → (区块段键 → 进行中的异步扫描任务) */
+    private final HashMap<Integer, HashMap<Long, AsyncSectionScanner.Job>> inFlight = new HashMap<>();
+
+    /** 异步扫描尚未完成时 {@link #request} 返回的标记（按引用比较） */
+    public static final int[] PENDING = new int[0];
+
+    private OreIndex() {}
+
+    /** 区块段键：区块X、区块Z各22位，区块段Y 4位 */
+    public static long sectionKey(int chunkX, int sectionY, int chunkZ) {
+        return ((chunkX & 0x3FFFFFL) << 26) | ((chunkZ & 0x3FFFFFL) << 4) | (sectionY & 0xF);
+    }
+
+    /**
+     * 获取区块段的候选矿石条目，未缓存时立即扫描并写入索引
+     *
+     * @return 条目数组；区块未加载或地形未生成时返回 null
+     */
+    public int[] get(World world, int chunkX, int sectionY, int chunkZ) {
+        HashMap<Long, int[]> sections = sectionsOf(world);
+        long key = sectionKey(chunkX, sectionY, chunkZ);
+        int[] entries = sections.get(key);
+        if (entries != null) return entries;
+
+        // 检查区块是否存在且地形已生成
+        if (!world.getChunkProvider()
+            .chunkExists(chunkX, chunkZ)) {
+            return null;
+        }
+        Chunk chunk = world.getChunkFromChunkCoords(chunkX, chunkZ);
+        if (!chunk.isTerrainPopulated) return null;
+
+        entries = OreSectionScanner.scanSection(chunk.getBlockStorageArray()[sectionY]);
+        sections.put(key, entries);
+        return entries;
+    }
+
+    /**
+     * 异步获取区块段的候选矿石条目：未缓存时复制区块段并提交到工作线程
+     *
+     * @return 条目数组；任务未完成时返回 {@link #PENDING}；区块未加载或地形未生成时返回 null
+     */
+    public int[] request(World world, int chunkX, int sectionY, int chunkZ) {
+        HashMap<Long, int[]> sections = sectionsOf(world);
+        long key = sectionKey(chunkX, sectionY, chunkZ);
+        int[] entries = sections.get(key);
+        if (entries != null) return entries;
+
+        HashMap<Long, AsyncSectionScanner.Job> jobs = inFlight
+            .computeIfAbsent(world.provider.dimensionId, k -> new HashMap<>());
+        AsyncSectionScanner.Job job = jobs.get(key);
+        if (job != null) {
+            if (!job.isDone()) return PENDING;
+            jobs.remove(key);
+            entries = job.resolve();
+            if (entries == null) return PENDING; // 任务失败，下次重新提交
+            sections.put(key, entries);
+            return entries;
+        }
+
+        if (!world.getChunkProvider()
+            .chunkExists(chunkX, chunkZ)) {
+            return null;
+        }
+        Chunk chunk = world.getChunkFromChunkCoords(chunkX, chunkZ);
+        if (!chunk.isTerrainPopulated) return null;
+
+        ExtendedBlockStorage storage = chunk.getBlockStorageArray()[sectionY];
+        if (storage == null || storage.isEmpty()) {
+            sections.put(key, OreSectionScanner.NO_ORES);
+            return OreSectionScanner.NO_ORES;
+        }
+        job = AsyncSectionScanner.submit(storage);
+        if (job != null) jobs.put(key, job);
+        return PENDING;
+    }
+
+    /**
+     * 单个方块变化：重新分类该方块并修补区块段条目，进行中的异步任务作废
+     */
+    public void onBlockChanged(World world, int x, int y, int z) {
+        if (y < 0 || y > 255) return;
+        long key = sectionKey(x >> 4, y >> 4, z >> 4);
+        HashMap<Long, AsyncSectionScanner.Job> jobs = inFlight.get(world.provider.dimensionId);
+        if (jobs != null) jobs.remove(key);
+        HashMap<Long, int[]> sections = dimensions.get(world.provider.dimensionId);
+        if (sections == null) return;
+        int[] entries = sections.get(key);
+        if (entries == null) return;
+
+        int index = ((y & 15) << 8) | ((z & 15) << 4) | (x & 15);
+        Block block = world.getBlock(x, y, z);
+        int meta = world.getBlockMetadata(x, y, z);
+        int entry = OreClassifier.classify(block, meta) != OreClassifier.NOT_ORE
+            ? OreSectionScanner.entry(index, Block.getIdFromBlock(block), meta)
+            : -1;
+        sections.put(key, OreSectionScanner.patchEntry(entries, index, entry));
+    }
+
+    /** 方块变化时使对应区块段失效，进行中的异步任务一并作废 */
+    public void invalidate(World world, int x, int y, int z) {
+        if (y < 0 || y > 255) return;
+        long key = sectionKey(x >> 4, y >> 4, z >> 4);
+        HashMap<Long, int[]> sections = dimensions.get(world.provider.dimensionId);
+        if (sections != null) sections.remove(key);
+        HashMap<Long, AsyncSectionScanner.Job> jobs = inFlight.get(world.provider.dimensionId);
+        if (jobs != null) jobs.remove(key);
+    }
+
+    private HashMap<Long, int[]> sectionsOf(World world) {
+        return dimensions.computeIfAbsent(world.provider.dimensionId, k -> new HashMap<>());
+    }
+
+    /** 服务器停止时清空 */
+    public void clear() {
+        dimensions.clear();
+        inFlight.clear();
+    }
+
+    @SubscribeEvent
+    public void onWorldLoad(WorldEvent.Load event) {
+        if (event.world.isRemote) return;
+        event.world.addWorldAccess(new MinerWorldAccess(event.world));
+    }
+
+    @SubscribeEvent
+    public void onWorldUnload(WorldEvent.Unload event) {
+        if (event.world.isRemote) return;
+        dimensions.remove(event.world.provider.dimensionId);
+        inFlight.remove(event.world.provider.dimensionId);
+        MinerAreaRegistry.INSTANCE.onWorldUnload(event.world);
+    }
+
+    @SubscribeEvent
+    public void onChunkUnload(ChunkEvent.Unload event) {
+        World world = event.world;
+        if (world.isRemote) return;
+        Chunk chunk = event.getChunk();
+        for (int sectionY = 0; sectionY < 16; sectionY++) {
+            invalidate(world, chunk.xPosition << 4, sectionY << 4, chunk.zPosition << 4);
+        }
+        MinerAreaRegistry.INSTANCE.onChunkUnload(world, chunk.xPosition, chunk.zPosition);
+    }
+}
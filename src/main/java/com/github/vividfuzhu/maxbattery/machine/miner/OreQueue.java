@@ -0,0 +1,219 @@
+package com.github.vividfuzhu.maxbattery.machine.miner;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * 矿石位置队列 - 以压缩 int 存储相对坐标的环形缓冲区。
+ *
+ * 每个矿石占 4 字节（原 ChunkPosition 对象约 24 字节 + 引用），
+ * 出队为 O(1)，不再像 ArrayList#remove(0) 那样整体移位。
+ *
+ * 压缩格式（相对机器坐标）：
+ * <pre>
+ *   bit 31-22: dy + 512   (10 位, dy ∈ [-512, 511])
+ *   bit 21-11: dz + 1024  (11 位, dz ∈ [-1024, 1023])
+ *   bit 10-0 : dx + 1024  (11 位, dx ∈ [-1024, 1023])
+ * </pre>
+ */
+public final class OreQueue {
+
+    /** 初始容量（必须为 2 的幂） */
+    private static final int INITIAL_CAPACITY = 64;
+
+    private int[] elements = new int[INITIAL_CAPACITY];
+    private int head = 0;
+    private int size = 0;
+
+    /** 将相对坐标压缩为一个 int */
+    public static int pack(int dx, int dy, int dz) {
+        return ((dy + 512) << 22) | ((dz + 1024) << 11) | (dx + 1024);
+    }
+
+    public static int unpackX(int packed) {
+        return (packed & 0x7FF) - 1024;
+    }
+
+    public static int unpackY(int packed) {
+        return (packed >>> 22) - 512;
+    }
+
+    public static int unpackZ(int packed) {
+        return ((packed >>> 11) & 0x7FF) - 1024;
+    }
+
+    /** 入队一个相对坐标 */
+    public void add(int dx, int dy, int dz) {
+        addPacked(pack(dx, dy, dz));
+    }
+
+    /** 入队一个已压缩的坐标 */
+    public void addPacked(int packed) {
+        if (size == elements.length) grow();
+        elements[(head + size) & (elements.length - 1)] = packed;
+        size++;
+    }
+
+    /**
+     * 出队队首的压缩坐标
+     *
+     * @throws IllegalStateException 队列为空时
+     */
+    public int poll() {
+        if (size == 0) throw new IllegalStateException("OreQueue is empty");
+        int packed = elements[head];
+        head = (head + 1) & (elements.length - 1);
+        size--;
+        return packed;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** 清空队列，并释放扩容过的大数组 */
+    public void clear() {
+        head = 0;
+        size = 0;
+        if (elements.length > INITIAL_CAPACITY) elements = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * 按出队顺序导出为差分编码数组，用于 NBT 持久化
+     * 同层相邻矿石的差值很小，存档压缩后体积远小于原始坐标
+     */
+    public int[] toDeltaArray() {
+        int[] out = new int[size];
+        int previous = 0;
+        for (int i = 0; i < size; i++) {
+            int packed = elements[(head + i) & (elements.length - 1)];
+            out[i] = packed - previous;
+            previous = packed;
+        }
+        return out;
+    }
+
+    /**
+     * 从差分编码数组恢复队列内容（覆盖当前内容）
+     *
+     * @param deltas {@link #toDeltaArray()} 的输出
+     */
+    public void loadDeltaArray(int[] deltas) {
+        clear();
+        int packed = 0;
+        for (int delta : deltas) {
+            packed += delta;
+            addPacked(packed);
+        }
+    }
+
+    /**
+     * 廉价校验：所有坐标都位于给定半径与世界高度内
+     *
+     * @param radius  工作半径
+     * @param originY 机器Y坐标
+     */
+    public boolean isWithin(int radius, int originY) {
+        for (int i = 0; i < size; i++) {
+            int packed = elements[(head + i) & (elements.length - 1)];
+            int y = originY + unpackY(packed);
+            if (Math.abs(unpackX(packed)) > radius || Math.abs(unpackZ(packed)) > radius || y < 0 || y > 255) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 只保留水平距离在给定半径内的坐标，保持原有顺序
+     */
+    public void retainWithin(int radius) {
+        int kept = 0;
+        int mask = elements.length - 1;
+        for (int i = 0; i < size; i++) {
+            int packed = elements[(head + i) & mask];
+            if (Math.abs(unpackX(packed)) <= radius && Math.abs(unpackZ(packed)) <= radius) {
+                elements[(head + kept) & mask] = packed;
+                kept++;
+            }
+        }
+        size = kept;
+    }
+
+    /**
+     * 按区块列重排队列：同一区块列的坐标连续，区块列内自上而下
+     * 用于旧存档中按层排序的队列，使采矿机一次只需加载一个区块
+     *
+     * @param originX 机器X坐标
+     * @param originZ 机器Z坐标
+     */
+    public void sortByChunk(int originX, int originZ) {
+        if (size < 2) return;
+        int baseChunkX = (originX - 1024) >> 4;
+        int baseChunkZ = (originZ - 1024) >> 4;
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            int packed = elements[(head + i) & (elements.length - 1)];
+            long chunkX = ((originX + unpackX(packed)) >> 4) - baseChunkX;
+            long chunkZ = ((originZ + unpackZ(packed)) >> 4) - baseChunkZ;
+            long descendingY = 1023 - (packed >>> 22);
+            keys[i] = (chunkX << 50) | (chunkZ << 42) | (descendingY << 32) | (packed & 0xFFFFFFFFL);
+        }
+        Arrays.sort(keys);
+        for (int i = 0; i < size; i++) {
+            elements[i] = (int) keys[i];
+        }
+        head = 0;
+    }
+
+    /**
+     * 从队尾开始移除满足条件的坐标，剩余坐标保持原有顺序
+     * 用于空闲的采矿机从相邻采矿机队尾分担工作，避开对方正在挖掘的队首区块
+     *
+     * @param max       最多移除的数量
+     * @param scanLimit 最多检查的队尾坐标数
+     * @param filter    判断压缩坐标是否可以移除
+     * @return 被移除的压缩坐标，按原队列顺序排列
+     */
+    public int[] removeFromTail(int max, int scanLimit, IntPredicate filter) {
+        int mask = elements.length - 1;
+        int start = Math.max(0, size - scanLimit);
+        int[] removed = new int[Math.min(max, size - start)];
+        int removedCount = 0;
+        // 从队尾向前挑选，被选中的位置置为已移除
+        boolean[] taken = new boolean[size - start];
+        for (int i = size - 1; i >= start && removedCount < removed.length; i--) {
+            if (filter.test(elements[(head + i) & mask])) {
+                taken[i - start] = true;
+                removedCount++;
+            }
+        }
+        if (removedCount == 0) return new int[0];
+        int kept = start;
+        int out = 0;
+        for (int i = start; i < size; i++) {
+            int packed = elements[(head + i) & mask];
+            if (taken[i - start]) {
+                removed[out++] = packed;
+            } else {
+                elements[(head + kept) & mask] = packed;
+                kept++;
+            }
+        }
+        size = kept;
+        return Arrays.copyOf(removed, out);
+    }
+
+    private void grow() {
+        int[] grown = new int[elements.length << 1];
+        int firstPart = Math.min(size, elements.length - head);
+        System.arraycopy(elements, head, grown, 0, firstPart);
+        System.arraycopy(elements, 0, grown, firstPart, size - firstPart);
+        elements = grown;
+        head = 0;
+    }
+}
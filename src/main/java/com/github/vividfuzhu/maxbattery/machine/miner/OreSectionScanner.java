@@ -0,0 +1,147 @@
+package com.github.vividfuzhu.maxbattery.machine.miner;
+
+import java.util.Arrays;
+
+import net.minecraft.world.chunk.NibbleArray;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+
+/**
+ * 区块段矿石扫描器 - 直接遍历 {@link ExtendedBlockStorage} 的方块/元数据数组。
+ *
+ * 相比逐格调用 World#getBlock / getBlockMetadata：
+ * <ul>
+ *   <li>每个 16³ 区块段只解析一次，结果写入 {@link OreIndex} 供所有采矿机共享</li>
+ *   <li>空区块段（null 或方块计数为 0）整段跳过</li>
+ *   <li>空气方块只读一个字节即可排除，其余方块查 {@link OreClassifier} 分类表</li>
+ * </ul>
+ *
+ * 扫描结果为候选矿石条目数组，每个条目格式：
+ * <pre>
+ *   bit 27-16: 区块段内索引 (y << 8 | z << 4 | x)
+ *   bit 15-4 : 方块ID
+ *   bit 3-0  : 元数据
+ * </pre>
+ * 条目按索引升序排列，同一层的条目连续存放。
+ * GT 矿石的自然生成标记（TileEntityOres#mNatural）不在此处检查，由取用方按需校验。
+ */
+public final class OreSectionScanner {
+
+    /** 不含矿石的区块段共享的空结果 */
+    public static final int[] NO_ORES = new int[0];
+
+    private OreSectionScanner() {}
+
+    /**
+     * 扫描整个区块段，返回其中所有候选矿石条目
+     *
+     * @param storage 区块段，可为 null
+     * @return 条目数组，无矿石时返回 {@link #NO_ORES}
+     */
+    public static int[] scanSection(ExtendedBlockStorage storage) {
+        if (storage == null || storage.isEmpty()) return NO_ORES; // 空区块段整段跳过
+
+        byte[] lsb = storage.getBlockLSBArray();
+        NibbleArray msb = storage.getBlockMSBArray();
+        NibbleArray metaArray = storage.getMetadataArray();
+
+        int[] found = null;
+        int count = 0;
+        for (int index = 0; index < 4096; index++) {
+            int id = lsb[index] & 0xFF;
+            if (msb != null) id |= nibble(msb, index) << 8;
+            if (id == 0) continue; // 空气
+
+            int meta = nibble(metaArray, index);
+            if (!OreClassifier.isOre(id, meta)) continue;
+
+            if (found == null) {
+                found = new int[16];
+            } else if (count == found.length) {
+                found = Arrays.copyOf(found, count << 1);
+            }
+            found[count++] = entry(index, id, meta);
+        }
+        return count == 0 ? NO_ORES : Arrays.copyOf(found, count);
+    }
+
+    public static int entry(int index, int blockId, int meta) {
+        return (index << 16) | (blockId << 4) | meta;
+    }
+
+    public static int entryIndex(int entry) {
+        return entry >>> 16;
+    }
+
+    public static int entryBlockId(int entry) {
+        return (entry >>> 4) & 0xFFF;
+    }
+
+    public static int entryMeta(int entry) {
+        return entry & 0xF;
+    }
+
+    /**
+     * 在条目数组中查找第一个位于指定层（区块段内 0-15）的条目位置
+     */
+    public static int firstEntryOfLayer(int[] entries, int localY) {
+        int key = entry(localY << 8, 0, 0);
+        int low = 0;
+        int high = entries.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (entries[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 替换条目数组中某个索引位置的条目（写时复制，原数组不变）
+     *
+     * @param entries 原条目数组
+     * @param index   区块段内索引
+     * @param entry   新条目，-1 表示该位置不再是矿石
+     * @return 修补后的条目数组
+     */
+    public static int[] patchEntry(int[] entries, int index, int entry) {
+        int low = 0;
+        int high = entries.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (entryIndex(entries[mid]) < index) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        boolean present = low < entries.length && entryIndex(entries[low]) == index;
+        if (entry < 0) {
+            if (!present) return entries;
+            if (entries.length == 1) return NO_ORES;
+            int[] removed = new int[entries.length - 1];
+            System.arraycopy(entries, 0, removed, 0, low);
+            System.arraycopy(entries, low + 1, removed, low, entries.length - low - 1);
+            return removed;
+        }
+        if (present) {
+            if (entries[low] == entry) return entries;
+            int[] replaced = entries.clone();
+            replaced[low] = entry;
+            return replaced;
+        }
+        int[] inserted = new int[entries.length + 1];
+        System.arraycopy(entries, 0, inserted, 0, low);
+        inserted[low] = entry;
+        System.arraycopy(entries, low, inserted, low + 1, entries.length - low);
+        return inserted;
+    }
+
+    /** 按区块段内索引（y << 8 | z << 4 | x）读取半字节数组 */
+    static int nibble(NibbleArray array, int index) {
+        byte b = array.data[index >> 1];
+        return (index & 1) == 0 ? b & 0xF : (b >> 4) & 0xF;
+    }
+}
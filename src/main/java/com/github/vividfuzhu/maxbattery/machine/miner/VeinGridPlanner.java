@@ -0,0 +1,165 @@
+package com.github.vividfuzhu.maxbattery.machine.miner;
+
+import java.util.Arrays;
+import java.util.Set;
+
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.world.World;
+
+import gregtech.common.WorldgenGTOreLayer;
+import gregtech.common.blocks.TileEntityOres;
+
+/**
+ * GT 矿脉网格扫描规划 - 只扫描可能含有矿脉的区块段。
+ *
+ * GT 矿脉以 |chunkX| % 3 == 1 且 |chunkZ| % 3 == 1 的区块为中心（种子区块）生成，
+ * 向四周最多延伸约两个区块，高度限于已注册矿层的 Y 范围。据此分三步扫描：
+ * <ol>
+ *   <li>种子阶段：只扫描工作区域相关的种子区块中、矿层高度范围内的区块段</li>
+ *   <li>矿脉阶段：种子区块某区块段含有 GT 矿脉矿石时，才扫描其周围两个区块内的同高度区块段。
+ *       到处散布的贫瘠矿石（小矿）不算矿脉</li>
+ *   <li>兜底阶段（可选）：扫描其余所有区块段，用于非矿脉矿石</li>
+ * </ol>
+ * 大半径采矿机的扫描量因此减少约一个数量级。
+ */
+final class VeinGridPlanner {
+
+    /** 矿脉从种子区块向外延伸的最大区块数 */
+    private static final int VEIN_REACH = 2;
+
+    /** GT 贫瘠矿石（小矿）的 mMetaData 下限 */
+    private static final int SMALL_ORE_META = 16000;
+
+    /** 可能含有矿脉的区块段（按区块段Y），首次使用时由已注册的矿层计算 */
+    private static boolean[] veinLayers;
+
+    private VeinGridPlanner() {}
+
+    static boolean isSeedChunk(int chunkX, int chunkZ) {
+        return Math.abs(chunkX) % 3 == 1 && Math.abs(chunkZ) % 3 == 1;
+    }
+
+    /** 种子阶段：工作区域及其外侧 {@link #VEIN_REACH} 圈区块中的种子区块 × 矿层高度 */
+    static long[] seedSections(int originX, int originY, int originZ, int radius) {
+        boolean[] layers = veinLayers();
+        SectionList list = new SectionList();
+        int minChunkX = ((originX - radius) >> 4) - VEIN_REACH;
+        int maxChunkX = ((originX + radius) >> 4) + VEIN_REACH;
+        int minChunkZ = ((originZ - radius) >> 4) - VEIN_REACH;
+        int maxChunkZ = ((originZ + radius) >> 4) + VEIN_REACH;
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                if (!isSeedChunk(chunkX, chunkZ)) continue;
+                for (int sy = Math.min(15, originY >> 4); sy >= 0; sy--) {
+                    if (layers[sy]) list.add(OreIndex.sectionKey(chunkX, sy, chunkZ));
+                }
+            }
+        }
+        return list.toArray();
+    }
+
+    /**
+     * 矿脉阶段：周围有种子区块在相邻高度含有 GT 矿石的非种子区块段
+     *
+     * @param oreSeeds 种子阶段记录的含 GT 矿石的区块段键
+     */
+    static long[] veinSections(Set<Long> oreSeeds, int originX, int originY, int originZ, int radius) {
+        boolean[] layers = veinLayers();
+        SectionList list = new SectionList();
+        for (int chunkX = (originX - radius) >> 4; chunkX <= (originX + radius) >> 4; chunkX++) {
+            for (int chunkZ = (originZ - radius) >> 4; chunkZ <= (originZ + radius) >> 4; chunkZ++) {
+                if (isSeedChunk(chunkX, chunkZ)) continue;
+                for (int sy = Math.min(15, originY >> 4); sy >= 0; sy--) {
+                    if (layers[sy] && nearVein(oreSeeds, chunkX, sy, chunkZ)) {
+                        list.add(OreIndex.sectionKey(chunkX, sy, chunkZ));
+                    }
+                }
+            }
+        }
+        return list.toArray();
+    }
+
+    /** 兜底阶段：前两个阶段未覆盖的所有区块段 */
+    static long[] fallbackSections(Set<Long> oreSeeds, int originX, int originY, int originZ, int radius) {
+        boolean[] layers = veinLayers();
+        SectionList list = new SectionList();
+        for (int chunkX = (originX - radius) >> 4; chunkX <= (originX + radius) >> 4; chunkX++) {
+            for (int chunkZ = (originZ - radius) >> 4; chunkZ <= (originZ + radius) >> 4; chunkZ++) {
+                boolean seed = isSeedChunk(chunkX, chunkZ);
+                for (int sy = Math.min(15, originY >> 4); sy >= 0; sy--) {
+                    if (layers[sy] && (seed || nearVein(oreSeeds, chunkX, sy, chunkZ))) continue;
+                    list.add(OreIndex.sectionKey(chunkX, sy, chunkZ));
+                }
+            }
+        }
+        return list.toArray();
+    }
+
+    /** {@link #VEIN_REACH} 个区块内的种子区块在该高度（含上下各一个区块段）是否有 GT 矿脉矿石 */
+    private static boolean nearVein(Set<Long> oreSeeds, int chunkX, int sectionY, int chunkZ) {
+        for (int dx = -VEIN_REACH; dx <= VEIN_REACH; dx++) {
+            for (int dz = -VEIN_REACH; dz <= VEIN_REACH; dz++) {
+                if (!isSeedChunk(chunkX + dx, chunkZ + dz)) continue;
+                for (int sy = Math.max(0, sectionY - 1); sy <= Math.min(15, sectionY + 1); sy++) {
+                    if (oreSeeds.contains(OreIndex.sectionKey(chunkX + dx, sy, chunkZ + dz))) return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 区块段扫描结果中是否有 GT 矿脉矿石（排除贫瘠矿石），种子阶段用来记录矿脉位置
+     * 区块未加载（条目来自离线图集）时无法读取 TileEntity，任何 GT 矿石都算作命中
+     */
+    static boolean hasVeinOre(World world, int chunkX, int sectionY, int chunkZ, int[] entries) {
+        boolean loaded = world.getChunkProvider()
+            .chunkExists(chunkX, chunkZ);
+        for (int entry : entries) {
+            if (OreClassifier.classify(OreSectionScanner.entryBlockId(entry), OreSectionScanner.entryMeta(entry))
+                != OreClassifier.GT_ORE) {
+                continue;
+            }
+            if (!loaded) return true;
+            int index = OreSectionScanner.entryIndex(entry);
+            TileEntity te = world.getTileEntity(
+                (chunkX << 4) | (index & 15),
+                (sectionY << 4) | (index >> 8),
+                (chunkZ << 4) | ((index >> 4) & 15));
+            if (te instanceof TileEntityOres && ((TileEntityOres) te).mMetaData < SMALL_ORE_META) return true;
+        }
+        return false;
+    }
+
+    /** 已注册矿层的高度范围覆盖的区块段，矿脉上下各外扩一格 */
+    private static boolean[] veinLayers() {
+        if (veinLayers != null) return veinLayers;
+        boolean[] layers = new boolean[16];
+        for (WorldgenGTOreLayer layer : WorldgenGTOreLayer.sList) {
+            int minY = Math.max(0, layer.mMinY - 1);
+            int maxY = Math.min(255, layer.mMaxY + 8);
+            for (int sy = minY >> 4; sy <= maxY >> 4; sy++) {
+                layers[sy] = true;
+            }
+        }
+        if (WorldgenGTOreLayer.sList.isEmpty()) Arrays.fill(layers, true);
+        veinLayers = layers;
+        return layers;
+    }
+
+    /** 区块段键的可增长列表 */
+    private static final class SectionList {
+
+        private long[] keys = new long[64];
+        private int size;
+
+        void add(long key) {
+            if (size == keys.length) keys = Arrays.copyOf(keys, size << 1);
+            keys[size++] = key;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(keys, size);
+        }
+    }
+}